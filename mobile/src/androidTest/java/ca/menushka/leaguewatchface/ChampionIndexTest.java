@@ -0,0 +1,53 @@
+package ca.menushka.leaguewatchface;
+
+import android.test.AndroidTestCase;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class ChampionIndexTest extends AndroidTestCase {
+
+    private File mFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFile = new File(getContext().getCacheDir(), "champions_test.bin");
+        mFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mFile.delete();
+        super.tearDown();
+    }
+
+    private ChampionIndex createIndex() throws Exception {
+        ChampionIndex index = new ChampionIndex(mFile);
+        index.load();
+        index.update("6.10.1", Arrays.asList(
+                new ChampionIndex.Champion(62, "MonkeyKing", "Wukong"),
+                new ChampionIndex.Champion(121, "Khazix", "Kha'Zix")));
+        return index;
+    }
+
+    public void testLookups() throws Exception {
+        ChampionIndex index = createIndex();
+        assertEquals("MonkeyKing", index.getKey(62));
+        assertNull(index.getKey(84));
+        assertEquals("MonkeyKing", index.findKey("wukong"));
+        assertEquals("MonkeyKing", index.findKey("MonkeyKing"));
+        assertEquals("Khazix", index.findKey("Kha'Zix"));
+        assertEquals("Khazix", index.findKey("kha zix"));
+        assertNull(index.findKey("Akalli"));
+    }
+
+    public void testPersists() throws Exception {
+        createIndex();
+        ChampionIndex index = new ChampionIndex(mFile);
+        index.load();
+        assertEquals("6.10.1", index.getVersion());
+        assertEquals("Khazix", index.getKey(121));
+        assertEquals("MonkeyKing", index.findKey("Wukong"));
+    }
+}
@@ -0,0 +1,68 @@
+package ca.menushka.leaguewatchface;
+
+import android.test.AndroidTestCase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * {@link LeagueParser} uses the platform JsonReader, so it is tested on a device.
+ */
+public class LeagueParserTest extends AndroidTestCase {
+
+    public void testParseSummonerId() throws Exception {
+        assertEquals(37846796, LeagueParser.parseSummonerId(new StringReader(PayloadBenchmark.SUMMONER_JSON)));
+    }
+
+    public void testParseCurrentGame() throws Exception {
+        String json = PayloadBenchmark.createCurrentGameJson();
+        LeagueParser.Game game = LeagueParser.parseCurrentGame(new StringReader(json), "Faker");
+        assertEquals(2187654321L, game.gameId);
+        assertEquals(84, game.championId);
+        assertEquals(13, LeagueParser.parseCurrentGame(new StringReader(json), "Player3").championId);
+        assertNull(LeagueParser.parseCurrentGame(new StringReader(json), "Nobody"));
+    }
+
+    public void testParseCurrentGame_notInGame() throws Exception {
+        String json = "{\"status\":{\"message\":\"Not Found\",\"status_code\":404}}";
+        assertNull(LeagueParser.parseCurrentGame(new StringReader(json), "Faker"));
+    }
+
+    public void testParseRecentGame() throws Exception {
+        LeagueParser.Game game = LeagueParser.parseRecentGame(new StringReader(PayloadBenchmark.createRecentMatchesJson()));
+        assertEquals(2187654321L, game.gameId);
+        assertEquals(84, game.championId);
+    }
+
+    public void testParseRecentGame_noGames() throws Exception {
+        assertNull(LeagueParser.parseRecentGame(new StringReader("{\"summonerId\":37846796,\"games\":[]}")));
+    }
+
+    public void testParseChampionKey() throws Exception {
+        assertEquals("Akali", LeagueParser.parseChampionKey(new StringReader(PayloadBenchmark.CHAMPION_JSON)));
+    }
+
+    public void testParseLatestVersion() throws Exception {
+        assertEquals("6.10.1", LeagueParser.parseLatestVersion(new StringReader("[\"6.10.1\",\"6.9.1\"]")));
+    }
+
+    public void testParseChampions() throws Exception {
+        String json = "{\"type\":\"champion\",\"version\":\"6.10.1\",\"data\":{"
+                + "\"62\":{\"id\":62,\"key\":\"MonkeyKing\",\"name\":\"Wukong\",\"title\":\"the Monkey King\"},"
+                + "\"84\":{\"id\":84,\"key\":\"Akali\",\"name\":\"Akali\",\"title\":\"the Fist of Shadow\"}}}";
+        List<ChampionIndex.Champion> champions = LeagueParser.parseChampions(new StringReader(json));
+        assertEquals(2, champions.size());
+        assertEquals(62, champions.get(0).id);
+        assertEquals("MonkeyKing", champions.get(0).key);
+        assertEquals("Wukong", champions.get(0).name);
+    }
+
+    public void testMalformed() throws Exception {
+        try {
+            LeagueParser.parseSummonerId(new StringReader("{\"faker\":{\"id\":\"abc\"}}"));
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+}
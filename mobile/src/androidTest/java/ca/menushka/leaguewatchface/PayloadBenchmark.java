@@ -0,0 +1,120 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.test.AndroidTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Benchmarks for the phone side of a refresh: parsing Riot API responses and transcoding the
+ * splash for the watch. Run with {@code ./gradlew :mobile:connectedAndroidTest}.
+ */
+public class PayloadBenchmark extends AndroidTestCase {
+
+    static final String SUMMONER_JSON =
+            "{\"faker\":{\"id\":37846796,\"name\":\"Faker\",\"profileIconId\":7,"
+                    + "\"revisionDate\":1463872547000,\"summonerLevel\":30}}";
+
+    static final String CHAMPION_JSON =
+            "{\"id\":84,\"title\":\"the Fist of Shadow\",\"name\":\"Akali\",\"key\":\"Akali\"}";
+
+    static ResponseBody createBody(String json) throws IOException {
+        ResponseBody body = new ResponseBody(1024);
+        body.read(new ByteArrayInputStream(json.getBytes("UTF-8")), -1);
+        return body;
+    }
+
+    /**
+     * Spectator response with ten participants, the tracked summoner last.
+     */
+    static String createCurrentGameJson() {
+        StringBuilder json = new StringBuilder("{\"gameId\":2187654321,\"mapId\":11,\"gameMode\":\"CLASSIC\","
+                + "\"gameType\":\"MATCHED_GAME\",\"gameQueueConfigId\":410,\"participants\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"teamId\":").append(i < 5 ? 100 : 200)
+                    .append(",\"spell1Id\":4,\"spell2Id\":14,\"championId\":").append(i == 9 ? 84 : 10 + i)
+                    .append(",\"profileIconId\":7,\"summonerName\":\"").append(i == 9 ? "Faker" : "Player" + i)
+                    .append("\",\"bot\":false,\"summonerId\":").append(1000 + i)
+                    .append(",\"runes\":[{\"count\":9,\"runeId\":5245}],\"masteries\":[{\"rank\":5,\"masteryId\":6111}]}");
+        }
+        json.append("],\"observers\":{\"encryptionKey\":\"abc\"},\"platformId\":\"NA1\",\"gameStartTime\":1463872547000,\"gameLength\":420}");
+        return json.toString();
+    }
+
+    /**
+     * Recent games response with the usual ten games and their stats blocks.
+     */
+    static String createRecentMatchesJson() {
+        StringBuilder json = new StringBuilder("{\"summonerId\":37846796,\"games\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"gameId\":").append(2187654321L - i)
+                    .append(",\"championId\":").append(84 + i)
+                    .append(",\"gameMode\":\"CLASSIC\",\"createDate\":1463872547000,\"stats\":{\"win\":true,"
+                            + "\"championsKilled\":7,\"numDeaths\":2,\"assists\":9,\"goldEarned\":12000,"
+                            + "\"minionsKilled\":210,\"timePlayed\":1900},\"fellowPlayers\":[");
+            for (int j = 0; j < 9; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\"summonerId\":").append(2000 + j).append(",\"teamId\":100,\"championId\":").append(j + 1).append('}');
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    public void testParseResponses() throws Exception {
+        final ResponseBody summoner = createBody(SUMMONER_JSON);
+        final ResponseBody currentGame = createBody(createCurrentGameJson());
+        final ResponseBody recentMatches = createBody(createRecentMatchesJson());
+        final ResponseBody champion = createBody(CHAMPION_JSON);
+
+        Benchmark.run("parse_summoner", new Benchmark.Body() {
+            @Override
+            public void run() throws Exception {
+                LeagueParser.parseSummonerId(summoner.reader());
+            }
+        });
+        Benchmark.run("parse_current_game", new Benchmark.Body() {
+            @Override
+            public void run() throws Exception {
+                LeagueParser.parseCurrentGame(currentGame.reader(), "Faker");
+            }
+        });
+        Benchmark.run("parse_recent_matches", new Benchmark.Body() {
+            @Override
+            public void run() throws Exception {
+                LeagueParser.parseRecentGame(recentMatches.reader());
+            }
+        });
+        Benchmark.run("parse_champion", new Benchmark.Body() {
+            @Override
+            public void run() throws Exception {
+                LeagueParser.parseChampionKey(champion.reader());
+            }
+        });
+    }
+
+    public void testTranscode() throws Exception {
+        final Bitmap splash = Benchmark.createSplash();
+        final Transcoder transcoder = new Transcoder(Bitmap.CompressFormat.JPEG, 80, true);
+
+        for (final int size : new int[]{320, 360, 400}) {
+            Benchmark.run("transcode_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    transcoder.transcode(splash, size, size);
+                }
+            });
+        }
+        splash.recycle();
+    }
+}
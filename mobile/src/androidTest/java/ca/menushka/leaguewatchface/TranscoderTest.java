@@ -0,0 +1,61 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Checks the transcoded background against the lossless full size PNG that used to be sent, and
+ * logs both sizes as "BYTES name n" lines next to the benchmark output.
+ */
+public class TranscoderTest extends AndroidTestCase {
+
+    private static final String TAG = "Benchmark";
+
+    private static byte[] png(Bitmap bitmap) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, bytes);
+        return bytes.toByteArray();
+    }
+
+    public void testBytesOnWire() throws Exception {
+        Bitmap splash = Benchmark.createSplash();
+        int before = png(splash).length;
+        Log.i(TAG, "BYTES png_full " + before);
+
+        for (int size : new int[]{320, 360, 400}) {
+            Transcoder plain = new Transcoder(Bitmap.CompressFormat.JPEG, 80, false);
+            Transcoder darkened = new Transcoder(Bitmap.CompressFormat.JPEG, 80, true);
+            Transcoder webp = new Transcoder(Bitmap.CompressFormat.WEBP, 80, true);
+            int plainBytes = plain.transcode(splash, size, size).length;
+            int darkenedBytes = darkened.transcode(splash, size, size).length;
+            int webpBytes = webp.transcode(splash, size, size).length;
+            Log.i(TAG, "BYTES jpeg_" + size + " " + plainBytes);
+            Log.i(TAG, "BYTES jpeg_darkened_" + size + " " + darkenedBytes);
+            Log.i(TAG, "BYTES webp_darkened_" + size + " " + webpBytes);
+
+            assertTrue(darkenedBytes * 10 < before);
+        }
+        splash.recycle();
+    }
+
+    public void testCropsToWatchAspect() throws Exception {
+        Bitmap splash = Benchmark.createSplash();
+        byte[] image = new Transcoder(Bitmap.CompressFormat.JPEG, 80, false).transcode(splash, 320, 290);
+        Bitmap decoded = BitmapFactory.decodeByteArray(image, 0, image.length);
+        assertEquals(320, decoded.getWidth());
+        assertEquals(290, decoded.getHeight());
+        splash.recycle();
+    }
+
+    public void testUnknownSizeUsesDefault() throws Exception {
+        Bitmap splash = Benchmark.createSplash();
+        byte[] image = new Transcoder(Bitmap.CompressFormat.JPEG, 80, false).transcode(splash, 0, 0);
+        Bitmap decoded = BitmapFactory.decodeByteArray(image, 0, image.length);
+        assertEquals(Transcoder.DEFAULT_SIZE, decoded.getHeight());
+        splash.recycle();
+    }
+}
@@ -0,0 +1,172 @@
+package ca.menushka.leaguewatchface;
+
+import android.util.SparseArray;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Every champion's splash key, by id and by name, so a refresh doesn't need a static data round
+ * trip to find out which splash to download. The whole table is loaded in one request, kept in a
+ * small binary file, and only fetched again when the static data version changes.
+ */
+class ChampionIndex {
+
+    static class Champion {
+        final int id;
+        final String key;
+        final String name;
+
+        Champion(int id, String key, String name) {
+            this.id = id;
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    /** Name of the index file in the app's files dir. */
+    static final String FILE_NAME = "champions.bin";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File mFile;
+    private final SparseArray<String> mKeys = new SparseArray<>();
+    private final HashMap<String, String> mKeysByName = new HashMap<>();
+    private String mVersion;
+    private boolean mLoaded;
+
+    ChampionIndex(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Returns the splash key of a champion, or null if it isn't known.
+     */
+    synchronized String getKey(int championId) {
+        return mKeys.get(championId);
+    }
+
+    /**
+     * Returns the splash key for a champion name or key as a user might type it, ignoring case,
+     * spaces and punctuation, or null if there's no such champion.
+     */
+    synchronized String findKey(String name) {
+        return mKeysByName.get(normalize(name));
+    }
+
+    synchronized boolean isEmpty() {
+        return mKeys.size() == 0;
+    }
+
+    synchronized String getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Loads the stored index on first use, then fetches the champion table if the static data has
+     * moved on to a new version since it was stored. The index isn't locked during the lookups, so
+     * it can be read while they run.
+     */
+    void refresh() throws IOException {
+        load();
+
+        ResponseBody body = LeagueAPI.get(LeagueData.getVersionsUrl());
+        String version = body == null ? null : LeagueParser.parseLatestVersion(body.reader());
+        if (version == null || version.equals(getVersion())) {
+            return;
+        }
+        body = LeagueAPI.get(LeagueData.getAllChampionsUrl());
+        if (body == null) {
+            throw new IOException("Champion list lookup failed");
+        }
+        List<Champion> champions = LeagueParser.parseChampions(body.reader());
+        if (champions.isEmpty()) {
+            throw new IOException("Empty champion list");
+        }
+        update(version, champions);
+    }
+
+    /**
+     * Replaces the index and stores it.
+     */
+    synchronized void update(String version, List<Champion> champions) throws IOException {
+        set(version, champions);
+        save(champions);
+    }
+
+    private void set(String version, List<Champion> champions) {
+        mVersion = version;
+        mKeys.clear();
+        mKeysByName.clear();
+        for (Champion champion : champions) {
+            mKeys.put(champion.id, champion.key);
+            mKeysByName.put(normalize(champion.key), champion.key);
+            mKeysByName.put(normalize(champion.name), champion.key);
+        }
+    }
+
+    /**
+     * Reads the stored index, once.
+     */
+    synchronized void load() {
+        if (mLoaded) {
+            return;
+        }
+        mLoaded = true;
+        if (!mFile.exists()) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(mFile));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return;
+                }
+                String version = in.readUTF();
+                int count = in.readInt();
+                List<Champion> champions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    champions.add(new Champion(in.readInt(), in.readUTF(), in.readUTF()));
+                }
+                set(version, champions);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Fetched again on this refresh.
+            e.printStackTrace();
+        }
+    }
+
+    private void save(List<Champion> champions) throws IOException {
+        File tmp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(mVersion);
+            out.writeInt(champions.size());
+            for (Champion champion : champions) {
+                out.writeInt(champion.id);
+                out.writeUTF(champion.key);
+                out.writeUTF(champion.name);
+            }
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(mFile)) {
+            throw new IOException("Couldn't move champion index into place");
+        }
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.US).replaceAll("[^a-z0-9]", "");
+    }
+}
@@ -1,124 +1,540 @@
 package ca.menushka.leaguewatchface;
 
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
+import android.util.Log;
 
+import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.wearable.Asset;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
 import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.DataMapItem;
 import com.google.android.gms.wearable.PutDataMapRequest;
 import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableListenerService;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class DataListenerService extends WearableListenerService {
 
     private String USERNAME_TAG = "username";
     private String CHAMPION_OVERRIDE_TAG = "champion_override";
+    private String SWEEP_FPS_TAG = "sweep_fps";
+
+    private static final String TAG = "DataListenerService";
+
+    private static final String ACTION_PREFETCH = "ca.menushka.leaguewatchface.action.PREFETCH";
+
+    private static final long SPLASH_CACHE_BYTES = 20 * 1024 * 1024;
+    private static final long CONNECT_TIMEOUT_MS = 30 * 1000;
+    private static final int LOOKUP_THREADS = 4;
+
+    /**
+     * How backgrounds are encoded for the watch. The watch draws a 70% black overlay on top, so
+     * lossy artifacts aren't visible at this quality.
+     */
+    private static final Bitmap.CompressFormat BACKGROUND_FORMAT = Bitmap.CompressFormat.JPEG;
+    private static final int BACKGROUND_QUALITY = 80;
+    private static final boolean BACKGROUND_PRE_DARKEN = true;
+
+    private final Transcoder mTranscoder = new Transcoder(BACKGROUND_FORMAT, BACKGROUND_QUALITY, BACKGROUND_PRE_DARKEN);
+
+    private ChampionIndex mChampions;
+    private SummonerCache mSummoners;
+    private SplashCache mSplashes;
+    private GameStateStore mGameStates;
+    private GoogleApiClient mGoogleApiClient;
+    private final SingleFlight<Payload> mRefreshes = new SingleFlight<>();
+    private ExecutorService mExecutor;
+    private ExecutorService mPrefetchExecutor;
+    private PayloadPrefetcher mPrefetcher;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        loadApiKey();
+        mExecutor = Executors.newFixedThreadPool(LOOKUP_THREADS);
+        mPrefetchExecutor = Executors.newSingleThreadExecutor();
+        mGoogleApiClient = new GoogleApiClient.Builder(this)
+                .addApi(Wearable.API)
+                .build();
+        LeagueAPI.setCache(LeagueAPI.createCache(new File(getCacheDir(), "api")));
+        mChampions = new ChampionIndex(new File(getFilesDir(), ChampionIndex.FILE_NAME));
+        mSummoners = new SummonerCache(this);
+        mSplashes = new SplashCache(new File(getCacheDir(), "splashes"), SPLASH_CACHE_BYTES);
+        mGameStates = new GameStateStore(new File(getFilesDir(), GameStateStore.FILE_NAME));
+        mPrefetcher = new PayloadPrefetcher(new File(getFilesDir(), PayloadPrefetcher.FILE_NAME));
+    }
+
+    @Override
+    public void onDestroy() {
+        mGoogleApiClient.disconnect();
+        mExecutor.shutdownNow();
+        mPrefetchExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
+    /**
+     * Reads the key once per process, it can't change without a reinstall.
+     */
+    private void loadApiKey() {
+        synchronized (LeagueData.class) {
+            if (LeagueData.API_KEY != null) {
+                return;
+            }
+            InputStream is = getResources().openRawResource(R.raw.key); //Text file with just key
+            LeagueData.API_KEY = readTextFile(is);
+        }
+    }
+
+    /**
+     * {@code adb shell dumpsys activity service .DataListenerService} prints how the Riot API
+     * requests have been paced.
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        LeagueAPI.getScheduler().metrics.dump(writer);
+        writer.println("refreshes joined: " + mRefreshes.joined.get());
+        writer.println("refreshes unchanged: " + mGameStates.skipped.get());
+    }
 
     @Override
     public void onDataChanged(DataEventBuffer dataEvents) {
-        InputStream is = getResources().openRawResource(R.raw.key); //Text file with just key
-        LeagueData.API_KEY = readTextFile(is);
+        // Requests queue up while the phone is asleep or a refresh is running, and the last one
+        // has what the watch holds now, so one refresh answers them all.
+        DataMap request = null;
+        for (DataEvent event : dataEvents) {
+            if (event.getType() == DataEvent.TYPE_CHANGED) {
+                DataItem item = event.getDataItem();
+                if (item.getUri().getPath().equals("/league")) {
+                    request = DataMapItem.fromDataItem(item).getDataMap();
+                }
+            }
+        }
+        if (request == null) {
+            return;
+        }
+
+        // Hash of the background the watch already holds, if any.
+        String watchHash = request.getString("hash", "");
+        int watchWidth = request.getInt("width", 0);
+        int watchHeight = request.getInt("height", 0);
+
+        long now = System.currentTimeMillis();
+        mPrefetcher.onWatchRequest(watchWidth, watchHeight, now);
+        Payload warm = getWarmPayload();
+        if (warm != null && connect()) {
+            // Answer straight away, then check whether anything changed since it was fetched.
+            sendBackground(mGoogleApiClient, warm, watchHash);
+            if (mPrefetcher.isFresh(now)) {
+                schedulePrefetch();
+                return;
+            }
+        }
+
         try {
-            is.close();
+            Payload payload = refresh();
+            if ((warm == null || isChanged(warm, payload)) && connect()) {
+                sendBackground(mGoogleApiClient, payload, watchHash);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
+        schedulePrefetch();
+    }
 
-        for (DataEvent event : dataEvents) {
-            if (event.getType() == DataEvent.TYPE_CHANGED) {
-                DataItem item = event.getDataItem();
+    /**
+     * Started by the prefetch alarm, see {@link #schedulePrefetch()}.
+     */
+    @Override
+    public int onStartCommand(Intent intent, int flags, final int startId) {
+        if (intent != null && ACTION_PREFETCH.equals(intent.getAction())) {
+            mPrefetchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    prefetch();
+                    stopSelf(startId);
+                }
+            });
+        }
+        return START_NOT_STICKY;
+    }
 
-                GoogleApiClient mGoogleApiClient = new GoogleApiClient.Builder(this)
-                        .addApi(Wearable.API)
-                        .build();
+    /**
+     * Fetches the payload again in the background, and sends it on if it changed, so the next
+     * watch request can be answered without waiting on the Riot API.
+     */
+    private void prefetch() {
+        Payload warm = getWarmPayload();
+        try {
+            Payload payload = refresh();
+            if (warm != null && isChanged(warm, payload) && connect()) {
+                sendBackground(mGoogleApiClient, payload, warm.hash);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        schedulePrefetch();
+    }
 
-                mGoogleApiClient.blockingConnect();
+    /**
+     * Runs the lookups for the screen size the watch last reported, or joins a run in progress,
+     * and keeps the result warm.
+     */
+    private Payload refresh() throws IOException {
+        final int width = mPrefetcher.getWidth();
+        final int height = mPrefetcher.getHeight();
+        // Read before the lookups, so settings changed during them aren't paired with this payload.
+        String settings = getSettings();
+        // An acknowledgement only updates the payload held, so with none held the image is built
+        // again, even if the watch has it. Otherwise nothing would ever be kept warm.
+        Payload warm = mPrefetcher.get(settings);
+        final String heldHash = warm != null ? warm.hash : "";
+        Payload payload = mRefreshes.run(new SingleFlight.Task<Payload>() {
+            @Override
+            public Payload run() throws IOException {
+                return fetchPayload(heldHash, width, height);
+            }
+        });
+        try {
+            mPrefetcher.put(payload, settings, System.currentTimeMillis());
+        } catch (IOException e) {
+            // Still kept in memory.
+            e.printStackTrace();
+        }
+        return payload;
+    }
 
-                if (item.getUri().getPath().equals("/league")) {
+    /**
+     * Returns the warm payload if it was built for the current settings, or null.
+     */
+    private Payload getWarmPayload() {
+        return mPrefetcher.get(getSettings());
+    }
+
+    /**
+     * Returns the settings a payload is built from: the username and the override as entered, so
+     * an override that isn't a champion still matches.
+     */
+    private String getSettings() {
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
+        return pref.getString(USERNAME_TAG, "Faker") + "\n" + pref.getString(CHAMPION_OVERRIDE_TAG, "");
+    }
+
+    private static boolean isChanged(Payload warm, Payload payload) {
+        return !warm.hash.equals(payload.hash) || !warm.text.equals(payload.text) || warm.inGame != payload.inGame;
+    }
+
+    /**
+     * Sets the alarm for the next background fetch, or cancels it once the watch stops asking.
+     * It doesn't wake the phone: while it sleeps, the next watch request does the fetching.
+     */
+    private void schedulePrefetch() {
+        AlarmManager alarms = (AlarmManager) getSystemService(ALARM_SERVICE);
+        Intent intent = new Intent(this, DataListenerService.class).setAction(ACTION_PREFETCH);
+        PendingIntent operation = PendingIntent.getService(this, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+        long now = System.currentTimeMillis();
+        long next = mPrefetcher.getNextPollMs(now);
+        if (next < 0) {
+            alarms.cancel(operation);
+            return;
+        }
+        alarms.set(AlarmManager.ELAPSED_REALTIME, SystemClock.elapsedRealtime() + Math.max(0, next - now), operation);
+    }
+
+    /**
+     * Connects the shared client if it isn't already, and returns whether it is.
+     */
+    private boolean connect() {
+        if (mGoogleApiClient.isConnected()) {
+            return true;
+        }
+        ConnectionResult result = mGoogleApiClient.blockingConnect(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (!result.isSuccess()) {
+            Log.w(TAG, "Couldn't connect to the watch: " + result);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Looks up what the summoner is playing, or the override, and builds the background for a
+     * watch screen of the given size.
+     *
+     * <p>Lookups that don't depend on each other run at the same time: the static data check, and
+     * the spectator and recent games lookups, the latter in case the summoner isn't in a game. The
+     * splash for the recent game's champion starts downloading as soon as that's known, and is
+     * cancelled if the spectator lookup finds a game.
+     *
+     * <p>When the lookups find the same game as the last refresh and {@code heldHash} is what was
+     * sent for it, the splash isn't touched and only a small acknowledgement without the image is
+     * returned.
+     */
+    private Payload fetchPayload(String heldHash, int watchWidth, int watchHeight) throws IOException {
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
+
+        mChampions.load();
+        final Future<Void> indexRefresh = mExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                mChampions.refresh();
+                return null;
+            }
+        });
 
-                    SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
-
-                    // Get Summoner Info
-                    try {
-                        if (pref.getString(CHAMPION_OVERRIDE_TAG, "").equals("")) {
-                            String user = pref.getString(USERNAME_TAG, "Faker");
-                            JSONObject json = LeagueAPI.makeRequest(LeagueData.getSummonerInfoUrl(user.equals("") ? "Faker" : user));
-                            JSONObject summoner = json.getJSONObject(json.keys().next());
-
-                            JSONObject currentGame = LeagueAPI.makeRequest(LeagueData.getCurrentGameByIdUrl((int) summoner.getLong("id")));
-                            JSONObject championJson = new JSONObject();
-
-                            if (currentGame == null || currentGame.has("status")) {
-                                JSONObject matchesJson = LeagueAPI.makeRequest(LeagueData.getRecentMatchesUrl((int) summoner.getLong("id")));
-                                JSONObject matchJson = matchesJson.getJSONArray("games").getJSONObject(0);
-
-                                championJson = LeagueAPI.makeRequest(LeagueData.getChampionByIdUrl(matchJson.getInt("championId")));
-                            } else {
-                                JSONArray participants = currentGame.getJSONArray("participants");
-                                for (int i = 0; i < participants.length(); i++) {
-                                    JSONObject participant = participants.getJSONObject(i);
-                                    if (participant.getString("summonerName").equals(user)) {
-                                        championJson = LeagueAPI.makeRequest(LeagueData.getChampionByIdUrl(participant.getInt("championId")));
-                                        break;
-                                    }
-                                }
-                            }
-
-                            Bitmap bitmap = BitmapFactory.decodeStream(new URL(LeagueData.getChampionSplashUrl(championJson.getString("name"), 0)).openConnection().getInputStream());
-                            Asset asset = createAssetFromBitmap(bitmap);
-
-                            PutDataMapRequest putDataMapReq = PutDataMapRequest.create("/league_back");
-                            putDataMapReq.getDataMap().putAsset("image", asset);
-                            putDataMapReq.getDataMap().putString("text", user);
-                            putDataMapReq.getDataMap().putLong("time", System.currentTimeMillis());
-                            PutDataRequest request = putDataMapReq.asPutDataRequest();
-                            Wearable.DataApi.putDataItem(mGoogleApiClient, request);
-                        } else {
-                            Bitmap bitmap = BitmapFactory.decodeStream(new URL(LeagueData.getChampionSplashUrl(pref.getString(CHAMPION_OVERRIDE_TAG, ""),  0)).openConnection().getInputStream());
-                            Asset asset = createAssetFromBitmap(bitmap);
-
-                            PutDataMapRequest putDataMapReq = PutDataMapRequest.create("/league_back");
-                            putDataMapReq.getDataMap().putAsset("image", asset);
-                            putDataMapReq.getDataMap().putString("text", pref.getString(CHAMPION_OVERRIDE_TAG, ""));
-                            putDataMapReq.getDataMap().putLong("time", System.currentTimeMillis());
-                            PutDataRequest request = putDataMapReq.asPutDataRequest();
-                            Wearable.DataApi.putDataItem(mGoogleApiClient, request);
-                        }
-
-                    } catch (JSONException e) {
-                        e.printStackTrace();
-                    } catch (MalformedURLException e) {
-                        e.printStackTrace();
-                    } catch (IOException e) {
-                        e.printStackTrace();
+        String override = pref.getString(CHAMPION_OVERRIDE_TAG, "");
+        String overrideKey = null;
+        if (!override.equals("")) {
+            if (mChampions.isEmpty()) {
+                awaitIndex(indexRefresh);
+            }
+            overrideKey = mChampions.isEmpty() ? override : mChampions.findKey(override);
+            if (overrideKey == null) {
+                Log.w(TAG, "Ignoring unknown champion override " + override);
+            }
+        }
+        if (overrideKey != null) {
+            byte[] image = loadBackground(overrideKey, watchWidth, watchHeight);
+            return new Payload(image, mTranscoder.darkens(), override, false);
+        }
+
+        // Get Summoner Info
+        final String user = pref.getString(USERNAME_TAG, "Faker");
+        final String summonerName = user.equals("") ? "Faker" : user;
+        long cachedId = mSummoners.getId(summonerName);
+        final long summonerId = cachedId != LeagueParser.NOT_FOUND ? cachedId : lookUpSummoner(summonerName);
+
+        CompletionService<LeagueParser.Game> lookups = new ExecutorCompletionService<>(mExecutor);
+        Future<LeagueParser.Game> current = lookups.submit(new Callable<LeagueParser.Game>() {
+            @Override
+            public LeagueParser.Game call() throws IOException {
+                // The spectator endpoint answers 404 while the summoner isn't in a game.
+                ResponseBody body = LeagueAPI.get(LeagueData.getCurrentGameByIdUrl(summonerId));
+                return body == null ? null : LeagueParser.parseCurrentGame(body.reader(), user);
+            }
+        });
+        Future<LeagueParser.Game> recent = lookups.submit(new Callable<LeagueParser.Game>() {
+            @Override
+            public LeagueParser.Game call() throws IOException {
+                ResponseBody body = LeagueAPI.get(LeagueData.getRecentMatchesUrl(summonerId));
+                if (body == null) {
+                    throw new IOException("Recent games lookup failed");
+                }
+                LeagueParser.Game game = LeagueParser.parseRecentGame(body.reader());
+                if (game == null) {
+                    throw new IOException("No recent games");
+                }
+                return game;
+            }
+        });
+
+        Future<String> splash = null;
+        int splashChampionId = LeagueParser.NOT_FOUND;
+        try {
+            if (take(lookups) == recent && !current.isDone() && !failed(recent)) {
+                splashChampionId = await(recent).championId;
+                splash = prefetchSplash(splashChampionId, indexRefresh);
+            }
+
+            LeagueParser.Game game = await(current);
+            boolean inGame = game != null;
+            if (inGame) {
+                recent.cancel(true);
+            } else {
+                game = await(recent);
+            }
+
+            // Ids hardly ever change, so an old one is checked only after it was used.
+            if (cachedId != LeagueParser.NOT_FOUND && mSummoners.isStale(summonerName, System.currentTimeMillis())) {
+                mExecutor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return lookUpSummoner(summonerName);
                     }
+                });
+            }
+
+            // Only the default skin is shown for now.
+            GameState state = new GameState(summonerId, game.gameId, inGame, game.championId, 0);
+            Payload unchanged = mGameStates.getUnchanged(state, user, watchWidth, watchHeight, heldHash);
+            if (unchanged != null) {
+                return unchanged;
+            }
+
+            if (game.championId != splashChampionId) {
+                if (splash != null) {
+                    splash.cancel(true);
+                }
+                splash = prefetchSplash(game.championId, indexRefresh);
+            }
+
+            byte[] image = loadBackground(await(splash), watchWidth, watchHeight);
+            Payload payload = new Payload(image, mTranscoder.darkens(), user, inGame);
+            try {
+                mGameStates.put(state, watchWidth, watchHeight, payload);
+            } catch (IOException e) {
+                // Only means the next refresh for this game does the work again.
+                e.printStackTrace();
+            }
+            return payload;
+        } finally {
+            recent.cancel(true);
+            if (splash != null) {
+                splash.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Resolves a champion's splash key and downloads the splash into the cache, returning the key.
+     */
+    private Future<String> prefetchSplash(final int championId, final Future<Void> indexRefresh) {
+        return mExecutor.submit(new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                String championKey = mChampions.getKey(championId);
+                if (championKey == null) {
+                    // Newer than the stored index, see if the refreshed one has it.
+                    awaitIndex(indexRefresh);
+                    championKey = mChampions.getKey(championId);
+                }
+                if (championKey == null) {
+                    // Or the index couldn't be loaded at all.
+                    ResponseBody body = LeagueAPI.get(LeagueData.getChampionByIdUrl(championId));
+                    championKey = body == null ? null : LeagueParser.parseChampionKey(body.reader());
                 }
+                if (championKey == null) {
+                    throw new IOException("Champion lookup failed");
+                }
+                mSplashes.load(championKey, 0);
+                return championKey;
+            }
+        });
+    }
+
+    /**
+     * Waits for the static data check, which only holds things up when the stored index is
+     * missing a champion.
+     */
+    private static void awaitIndex(Future<Void> indexRefresh) throws InterruptedIOException {
+        try {
+            await(indexRefresh);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            // The stored index, or a lookup per champion, will do.
+            e.printStackTrace();
+        }
+    }
 
-                mGoogleApiClient.disconnect();
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a lookup");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
+            throw new RuntimeException(e.getCause());
         }
     }
 
-    private static Asset createAssetFromBitmap(Bitmap bitmap) {
-        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.PNG, 100, byteStream);
-        return Asset.createFromBytes(byteStream.toByteArray());
+    private static <T> Future<T> take(CompletionService<T> service) throws InterruptedIOException {
+        try {
+            return service.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a lookup");
+        }
+    }
+
+    /**
+     * Returns whether a finished task threw.
+     */
+    private static boolean failed(Future<?> future) {
+        try {
+            future.get();
+            return false;
+        } catch (InterruptedException | ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the default skin splash for a champion, from the cache when possible, transcoded
+     * for a watch screen of the given size.
+     */
+    private byte[] loadBackground(String championKey, int width, int height) throws IOException {
+        byte[] data = mSplashes.load(championKey, 0);
+        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
+        if (bitmap == null) {
+            mSplashes.remove(championKey, 0);
+            throw new IOException("Couldn't decode the splash for " + championKey);
+        }
+        byte[] image = mTranscoder.transcode(bitmap, width, height);
+        bitmap.recycle();
+        return image;
+    }
+
+    /**
+     * Resolves a summoner name to an id with the by-name endpoint and stores it.
+     */
+    private long lookUpSummoner(String summonerName) throws IOException {
+        ResponseBody body = LeagueAPI.get(LeagueData.getSummonerInfoUrl(summonerName));
+        long summonerId = body == null ? LeagueParser.NOT_FOUND : LeagueParser.parseSummonerId(body.reader());
+        if (summonerId == LeagueParser.NOT_FOUND) {
+            throw new IOException("Summoner lookup failed");
+        }
+        mSummoners.put(summonerName, summonerId, System.currentTimeMillis());
+        return summonerId;
+    }
+
+    /**
+     * Puts the /league_back item. The image is tagged with a hash of its bytes, and left out
+     * entirely when the watch reported that it already holds an image with that hash. The watch
+     * polls faster while the summoner is in a game, and sweeps its second hand at the chosen frame
+     * rate, or ticks if it is 0.
+     */
+    private void sendBackground(GoogleApiClient googleApiClient, Payload payload, String watchHash) {
+        SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
+        PutDataMapRequest putDataMapReq = PutDataMapRequest.create("/league_back");
+        if (payload.image != null && !payload.hash.equals(watchHash)) {
+            putDataMapReq.getDataMap().putAsset("image", Asset.createFromBytes(payload.image));
+        }
+        putDataMapReq.getDataMap().putString("hash", payload.hash);
+        putDataMapReq.getDataMap().putBoolean("darkened", payload.darkened);
+        putDataMapReq.getDataMap().putString("text", payload.text);
+        putDataMapReq.getDataMap().putBoolean("in_game", payload.inGame);
+        putDataMapReq.getDataMap().putInt(SWEEP_FPS_TAG, pref.getInt(SWEEP_FPS_TAG, 0));
+        putDataMapReq.getDataMap().putLong("time", System.currentTimeMillis());
+        PutDataRequest request = putDataMapReq.asPutDataRequest();
+        Wearable.DataApi.putDataItem(googleApiClient, request);
     }
 
     public String readTextFile(InputStream inputStream) {
@@ -0,0 +1,41 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * What a refresh found: the summoner's live game or their last one, and the champion and skin
+ * they played in it. Refreshes that find the same state produce the same background.
+ */
+class GameState {
+    final long summonerId;
+    final long gameId;
+    final boolean inGame;
+    final int championId;
+    final int skinId;
+
+    GameState(long summonerId, long gameId, boolean inGame, int championId, int skinId) {
+        this.summonerId = summonerId;
+        this.gameId = gameId;
+        this.inGame = inGame;
+        this.championId = championId;
+        this.skinId = skinId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameState)) {
+            return false;
+        }
+        GameState other = (GameState) o;
+        return summonerId == other.summonerId && gameId == other.gameId && inGame == other.inGame
+                && championId == other.championId && skinId == other.skinId;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (summonerId ^ (summonerId >>> 32));
+        result = 31 * result + (int) (gameId ^ (gameId >>> 32));
+        result = 31 * result + (inGame ? 1 : 0);
+        result = 31 * result + championId;
+        result = 31 * result + skinId;
+        return result;
+    }
+}
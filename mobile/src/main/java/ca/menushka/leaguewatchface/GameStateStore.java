@@ -0,0 +1,122 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The last game state a background was sent for, and what was sent, kept across restarts. A
+ * refresh that finds the same state for a watch that still holds that background can answer
+ * without downloading, transcoding or sending the image again.
+ */
+class GameStateStore {
+
+    /** Name of the store file in the app's files dir. */
+    static final String FILE_NAME = "game_state.bin";
+
+    private static final int FORMAT_VERSION = 1;
+
+    /** How many refreshes were answered with {@link #getUnchanged}. */
+    final AtomicLong skipped = new AtomicLong();
+
+    private final File mFile;
+    private boolean mLoaded;
+
+    private GameState mState;
+    private int mWidth;
+    private int mHeight;
+    private String mHash;
+    private boolean mDarkened;
+    private String mText;
+
+    GameStateStore(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Returns an acknowledgement without the image if the last background was sent for
+     * {@code state}, with the same text and for the same screen size, and the watch still holds
+     * it. Returns null if it has to be built again.
+     */
+    synchronized Payload getUnchanged(GameState state, String text, int width, int height, String watchHash) {
+        load();
+        if (mState == null || !mState.equals(state) || !mText.equals(text)
+                || mWidth != width || mHeight != height || !mHash.equals(watchHash)) {
+            return null;
+        }
+        skipped.incrementAndGet();
+        return new Payload(null, mHash, mDarkened, mText, state.inGame);
+    }
+
+    /**
+     * Records the background sent for {@code state} and stores it.
+     */
+    synchronized void put(GameState state, int width, int height, Payload payload) throws IOException {
+        mLoaded = true;
+        mState = state;
+        mWidth = width;
+        mHeight = height;
+        mHash = payload.hash;
+        mDarkened = payload.darkened;
+        mText = payload.text;
+        save();
+    }
+
+    private void load() {
+        if (mLoaded) {
+            return;
+        }
+        mLoaded = true;
+        if (!mFile.exists()) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(mFile));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return;
+                }
+                GameState state = new GameState(in.readLong(), in.readLong(), in.readBoolean(),
+                        in.readInt(), in.readInt());
+                mWidth = in.readInt();
+                mHeight = in.readInt();
+                mHash = in.readUTF();
+                mDarkened = in.readBoolean();
+                mText = in.readUTF();
+                mState = state;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // The next refresh sends everything and stores it again.
+            e.printStackTrace();
+        }
+    }
+
+    private void save() throws IOException {
+        File tmp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(mState.summonerId);
+            out.writeLong(mState.gameId);
+            out.writeBoolean(mState.inGame);
+            out.writeInt(mState.championId);
+            out.writeInt(mState.skinId);
+            out.writeInt(mWidth);
+            out.writeInt(mHeight);
+            out.writeUTF(mHash);
+            out.writeBoolean(mDarkened);
+            out.writeUTF(mText);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(mFile)) {
+            throw new IOException("Couldn't move game state into place");
+        }
+    }
+}
@@ -1,39 +1,223 @@
 package ca.menushka.leaguewatchface;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 public class LeagueAPI {
 
-    public static JSONObject makeRequest(String url) {
-        try {
-            HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("User-Agent", "Mozilla/5.0");
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MEMORY_CACHE_ENTRIES = 16;
+    private static final int DISK_CACHE_ENTRIES = 64;
+    private static final int CONNECT_TIMEOUT_MS = 10 * 1000;
+    private static final int READ_TIMEOUT_MS = 20 * 1000;
+
+    private static final ThreadLocal<ResponseBody> sBody = new ThreadLocal<ResponseBody>() {
+        @Override
+        protected ResponseBody initialValue() {
+            return new ResponseBody(INITIAL_BUFFER_SIZE);
+        }
+    };
+
+    private static final long REQUEST_DEADLINE_MS = 15 * 1000;
+    private static final int MAX_ATTEMPTS = 3;
 
-            BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-            String inputLine;
-            String response = "";
+    private static ResponseCache sCache;
+    private static RequestScheduler sScheduler = createScheduler();
 
-            while ((inputLine = in.readLine()) != null) {
-                response += inputLine + "\n";
+    /**
+     * Cache with the TTLs for each Riot endpoint: static data barely ever changes, a summoner
+     * rarely does, and game state is only worth keeping long enough to absorb repeated taps.
+     */
+    static ResponseCache createCache(File dir) {
+        ResponseCache cache = new ResponseCache(dir, MEMORY_CACHE_ENTRIES, DISK_CACHE_ENTRIES);
+        cache.setTtl(LeagueData.champion_by_id, TimeUnit.DAYS.toMillis(7));
+        cache.setTtl(LeagueData.versions, TimeUnit.DAYS.toMillis(1));
+        cache.setTtl(LeagueData.summoner_info, TimeUnit.HOURS.toMillis(6));
+        cache.setTtl(LeagueData.recent_matches, TimeUnit.SECONDS.toMillis(60));
+        cache.setTtl(LeagueData.current_game_id, TimeUnit.SECONDS.toMillis(15));
+        return cache;
+    }
+
+    static synchronized void setCache(ResponseCache cache) {
+        sCache = cache;
+    }
+
+    private static synchronized ResponseCache getCache() {
+        return sCache;
+    }
+
+    /**
+     * Scheduler for a development key's limits: 20 requests a second and 100 every two minutes,
+     * with at most four at once.
+     */
+    static RequestScheduler createScheduler() {
+        return new RequestScheduler(4, 500,
+                new RequestScheduler.Limit(20, TimeUnit.SECONDS.toMillis(1)),
+                new RequestScheduler.Limit(100, TimeUnit.MINUTES.toMillis(2)));
+    }
+
+    static synchronized void setScheduler(RequestScheduler scheduler) {
+        sScheduler = scheduler;
+    }
+
+    static synchronized RequestScheduler getScheduler() {
+        return sScheduler;
+    }
+
+    /**
+     * Returns the body of a successful GET, or null if the request failed. The body is the
+     * calling thread's buffer and is overwritten by its next request, so parse it before that.
+     *
+     * <p>With a cache set, a fresh cached response is returned without touching the network, a
+     * stale one is revalidated with its ETag or Last-Modified, and one that can't be revalidated
+     * because the network or server failed is returned as is.
+     */
+    static ResponseBody get(String url) {
+        ResponseCache cache = getCache();
+        long ttl = cache == null ? 0 : cache.getTtl(url);
+        ResponseCache.Entry cached = ttl > 0 ? cache.get(url) : null;
+        long now = System.currentTimeMillis();
+        ResponseBody body = sBody.get();
+        try {
+            if (cached != null && cached.isFresh(now, ttl)) {
+                return fromCache(cached, body);
             }
-            in.close();
 
-            return new JSONObject(response);
+            RequestScheduler scheduler = getScheduler();
+            String key = keyOf(url);
+            long deadline = now + REQUEST_DEADLINE_MS;
+            for (int attempt = 0; ; attempt++) {
+                if (!scheduler.acquire(key, deadline)) {
+                    return fromCache(cached, body);
+                }
+                try {
+                    HttpURLConnection con = open(url);
+                    con.setRequestProperty("Accept-Encoding", "gzip");
+                    if (cached != null && cached.etag != null) {
+                        con.setRequestProperty("If-None-Match", cached.etag);
+                    }
+                    if (cached != null && cached.lastModified != null) {
+                        con.setRequestProperty("If-Modified-Since", cached.lastModified);
+                    }
+
+                    int code = con.getResponseCode();
+                    scheduler.onResponse(key, code, con.getHeaderField("Retry-After"),
+                            con.getHeaderField("X-Rate-Limit-Count"));
+                    if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                        con.disconnect();
+                        cache.put(url, new ResponseCache.Entry(cached.body, cached.etag, cached.lastModified, now));
+                        return fromCache(cached, body);
+                    }
+                    if (code != HttpURLConnection.HTTP_OK) {
+                        con.disconnect();
+                        // A 404 is an answer (e.g. not in a game), only server trouble is retried.
+                        if (code < 500 && code != 429) {
+                            if (cached != null) {
+                                cache.remove(url);
+                            }
+                            return null;
+                        }
+                    } else {
+                        InputStream in = con.getInputStream();
+                        if ("gzip".equalsIgnoreCase(con.getContentEncoding())) {
+                            in = new GZIPInputStream(in);
+                        }
+                        // For a gzipped body this is the compressed size, which still makes a fine lower bound.
+                        body.read(in, con.getContentLength());
+                        if (ttl > 0) {
+                            cache.put(url, new ResponseCache.Entry(body.toByteArray(),
+                                    con.getHeaderField("ETag"), con.getHeaderField("Last-Modified"), now));
+                        }
+                        return body;
+                    }
+                } finally {
+                    scheduler.release();
+                }
+
+                // Waiting out a Retry-After is left to the scheduler, this only spreads retries out.
+                long delay = scheduler.getRetryDelayMs(attempt);
+                if (attempt + 1 >= MAX_ATTEMPTS || System.currentTimeMillis() + delay > deadline) {
+                    return fromCache(cached, body);
+                }
+                scheduler.metrics.retries.incrementAndGet();
+                Thread.sleep(delay);
+            }
         } catch (IOException e) {
             e.printStackTrace();
-        } catch (JSONException e) {
-            e.printStackTrace();
+            return fromCache(cached, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fromCache(cached, body);
         }
-        return null;
     }
-}
 
+    /**
+     * Downloads {@code url} into a new array, for bodies that are kept rather than parsed.
+     */
+    static byte[] download(String url) throws IOException {
+        RequestScheduler scheduler = getScheduler();
+        String key = keyOf(url);
+        try {
+            if (!scheduler.acquire(key, System.currentTimeMillis() + REQUEST_DEADLINE_MS)) {
+                throw new IOException("No request slot for " + url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for " + url);
+        }
+        try {
+            HttpURLConnection con = open(url);
+            int code = con.getResponseCode();
+            scheduler.onResponse(key, code, con.getHeaderField("Retry-After"),
+                    con.getHeaderField("X-Rate-Limit-Count"));
+            if (code != HttpURLConnection.HTTP_OK) {
+                con.disconnect();
+                throw new IOException("HTTP " + code + " for " + url);
+            }
+            ResponseBody body = sBody.get();
+            body.read(con.getInputStream(), con.getContentLength());
+            return body.toByteArray();
+        } finally {
+            scheduler.release();
+        }
+    }
 
+    /**
+     * Riot counts requests against the API key, so that's what they are paced by. Requests
+     * without one, like Data Dragon's, are only limited in how many run at once.
+     */
+    static String keyOf(String url) {
+        int start = url.indexOf("api_key=");
+        if (start < 0) {
+            return null;
+        }
+        start += "api_key=".length();
+        int end = url.indexOf('&', start);
+        return end < 0 ? url.substring(start) : url.substring(start, end);
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+        con.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        con.setReadTimeout(READ_TIMEOUT_MS);
+        con.setRequestMethod("GET");
+        con.setRequestProperty("User-Agent", "Mozilla/5.0");
+        return con;
+    }
+
+    /**
+     * Returns the cached response, stale or not, or null if there isn't one.
+     */
+    private static ResponseBody fromCache(ResponseCache.Entry cached, ResponseBody body) {
+        if (cached == null) {
+            return null;
+        }
+        body.set(cached.body);
+        return body;
+    }
+}
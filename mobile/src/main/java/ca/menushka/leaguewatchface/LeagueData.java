@@ -6,15 +6,24 @@ public class LeagueData {
     public static String recent_matches = "https://na.api.pvp.net/api/lol/na/v1.3/game/by-summoner/%d/recent?api_key=%s";
     public static String champion_splash = "http://ddragon.leagueoflegends.com/cdn/img/champion/splash/%s_%d.jpg";
     public static String champion_by_id = "https://global.api.pvp.net/api/lol/static-data/na/v1.2/champion/%d?api_key=%s";
+    public static String versions = "https://global.api.pvp.net/api/lol/static-data/na/v1.2/versions?api_key=%s";
+    public static String champion_all = "https://global.api.pvp.net/api/lol/static-data/na/v1.2/champion?dataById=true&api_key=%s";
     public static String current_game_id = "https://na.api.pvp.net/observer-mode/rest/consumer/getSpectatorGameInfo/NA1/%d?api_key=%s";
 
     public static String API_KEY;
 
+    /**
+     * Summoner names are looked up without their spaces.
+     */
+    public static String normalizeSummonerName(String summonerName) {
+        return summonerName.replaceAll(" ", "");
+    }
+
     public static String getSummonerInfoUrl(String summonerName) {
-        return String.format(summoner_info, summonerName.replaceAll(" ", ""), API_KEY); // 37846796
+        return String.format(summoner_info, normalizeSummonerName(summonerName), API_KEY); // 37846796
     }
 
-    public static String getRecentMatchesUrl(int summonerID) {
+    public static String getRecentMatchesUrl(long summonerID) {
         return String.format(recent_matches, summonerID, API_KEY);
     }
 
@@ -26,7 +35,15 @@ public class LeagueData {
         return String.format(champion_by_id, championId, API_KEY);
     }
 
-    public static String getCurrentGameByIdUrl(int championId) {
-        return String.format(current_game_id, championId, API_KEY);
+    public static String getVersionsUrl() {
+        return String.format(versions, API_KEY);
+    }
+
+    public static String getAllChampionsUrl() {
+        return String.format(champion_all, API_KEY);
+    }
+
+    public static String getCurrentGameByIdUrl(long summonerID) {
+        return String.format(current_game_id, summonerID, API_KEY);
     }
 }
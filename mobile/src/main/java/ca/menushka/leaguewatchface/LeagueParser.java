@@ -0,0 +1,258 @@
+package ca.menushka.leaguewatchface;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls the few fields a refresh needs out of Riot API responses with a streaming reader. Nothing
+ * else in a response is materialized; everything that isn't asked for is skipped.
+ */
+class LeagueParser {
+
+    /** Returned when a response doesn't contain what was asked for. */
+    static final int NOT_FOUND = -1;
+
+    static class Game {
+        final long gameId;
+        final int championId;
+
+        Game(long gameId, int championId) {
+            this.gameId = gameId;
+            this.championId = championId;
+        }
+    }
+
+    private LeagueParser() {
+    }
+
+    /**
+     * Returns the id from a summoner by-name response, which maps the standardized name to the
+     * summoner.
+     */
+    static long parseSummonerId(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            reader.beginObject();
+            if (!reader.hasNext()) {
+                return NOT_FOUND;
+            }
+            reader.nextName();
+            return readLong(reader, "id");
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the game and the champion {@code summonerName} is playing in a spectator response,
+     * or null if they aren't in it. Participants are looked at one at a time.
+     */
+    static Game parseCurrentGame(Reader in, String summonerName) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            long gameId = NOT_FOUND;
+            int championId = NOT_FOUND;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String section = reader.nextName();
+                if (section.equals("gameId")) {
+                    gameId = reader.nextLong();
+                    continue;
+                }
+                if (!section.equals("participants")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String name = null;
+                    int participantChampionId = NOT_FOUND;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("summonerName")) {
+                            name = reader.nextString();
+                        } else if (field.equals("championId")) {
+                            participantChampionId = reader.nextInt();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    if (summonerName.equals(name)) {
+                        championId = participantChampionId;
+                    }
+                }
+                reader.endArray();
+            }
+            return championId == NOT_FOUND ? null : new Game(gameId, championId);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the most recent game in a recent games response, or null if there are none.
+     */
+    static Game parseRecentGame(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("games")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                if (!reader.hasNext()) {
+                    return null;
+                }
+                long gameId = NOT_FOUND;
+                int championId = NOT_FOUND;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    if (field.equals("gameId")) {
+                        gameId = reader.nextLong();
+                    } else if (field.equals("championId")) {
+                        championId = reader.nextInt();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return championId == NOT_FOUND ? null : new Game(gameId, championId);
+            }
+            return null;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the splash key from a static data champion response, or null if it has none. The
+     * key differs from the name for champions like Wukong ("MonkeyKing") and Kha'Zix ("Khazix").
+     */
+    static String parseChampionKey(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            return readString(reader, "key");
+        } catch (IllegalStateException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the newest version from a static data versions response, or null if it is empty.
+     */
+    static String parseLatestVersion(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        try {
+            reader.beginArray();
+            return reader.hasNext() ? reader.nextString() : null;
+        } catch (IllegalStateException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns every champion in a static data champion list response.
+     */
+    static List<ChampionIndex.Champion> parseChampions(Reader in) throws IOException {
+        List<ChampionIndex.Champion> champions = new ArrayList<>();
+        JsonReader reader = new JsonReader(in);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("data")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    reader.nextName();
+                    int id = NOT_FOUND;
+                    String key = null;
+                    String name = null;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("id")) {
+                            id = reader.nextInt();
+                        } else if (field.equals("key")) {
+                            key = reader.nextString();
+                        } else if (field.equals("name")) {
+                            name = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    if (id != NOT_FOUND && key != null && name != null) {
+                        champions.add(new ChampionIndex.Champion(id, key, name));
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+            return champions;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the next object and returns its {@code field}, or {@link #NOT_FOUND}.
+     */
+    private static long readLong(JsonReader reader, String field) throws IOException {
+        long value = NOT_FOUND;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(field) && reader.peek() == JsonToken.NUMBER) {
+                value = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    /**
+     * Reads the next object and returns its {@code field}, or null.
+     */
+    private static String readString(JsonReader reader, String field) throws IOException {
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(field) && reader.peek() == JsonToken.STRING) {
+                value = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    private static IOException malformed(RuntimeException e) {
+        return new IOException("Unexpected response", e);
+    }
+}
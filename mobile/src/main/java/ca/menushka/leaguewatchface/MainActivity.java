@@ -1,20 +1,32 @@
 package ca.menushka.leaguewatchface;
 
 import android.content.SharedPreferences;
+import android.os.AsyncTask;
 import android.preference.PreferenceManager;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.Spinner;
+import android.widget.Toast;
+
+import java.io.File;
 
 public class MainActivity extends AppCompatActivity {
     EditText username;
     EditText champion;
+    Spinner secondHand;
     Button saveButton;
 
+    /**
+     * Champion list the override is checked against, null until it has been read off the UI thread.
+     */
+    ChampionIndex mChampions;
+
     private String USERNAME_TAG = "username";
     private String CHAMPION_OVERRIDE_TAG = "champion_override";
+    private String SWEEP_FPS_TAG = "sweep_fps";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -23,20 +35,58 @@ public class MainActivity extends AppCompatActivity {
 
         username = (EditText) findViewById(R.id.usernameField);
         champion = (EditText) findViewById(R.id.champOverrideField);
+        secondHand = (Spinner) findViewById(R.id.secondHandSpinner);
         saveButton = (Button) findViewById(R.id.saveButton);
 
         SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
         username.setText(pref.getString(USERNAME_TAG, ""));
         champion.setText(pref.getString(CHAMPION_OVERRIDE_TAG, ""));
 
+        final int[] sweepFps = getResources().getIntArray(R.array.second_hand_fps);
+        int savedFps = pref.getInt(SWEEP_FPS_TAG, 0);
+        for (int i = 0; i < sweepFps.length; i++) {
+            if (sweepFps[i] == savedFps) {
+                secondHand.setSelection(i);
+            }
+        }
+
+        new AsyncTask<Void, Void, ChampionIndex>() {
+            @Override
+            protected ChampionIndex doInBackground(Void... params) {
+                ChampionIndex index = new ChampionIndex(new File(getFilesDir(), ChampionIndex.FILE_NAME));
+                index.load();
+                return index;
+            }
+
+            @Override
+            protected void onPostExecute(ChampionIndex index) {
+                mChampions = index;
+            }
+        }.execute();
+
         saveButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                String override = String.valueOf(champion.getText()).trim();
+                if (!override.equals("")) {
+                    // Only checked once the phone has downloaded the champion list and it has been read.
+                    if (mChampions != null && !mChampions.isEmpty() && mChampions.findKey(override) == null) {
+                        Toast.makeText(MainActivity.this, getString(R.string.unknown_champion, override), Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                }
+
                 SharedPreferences pref = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
                 SharedPreferences.Editor editor = pref.edit();
 
-                editor.putString(USERNAME_TAG, String.valueOf(username.getText()));
-                editor.putString(CHAMPION_OVERRIDE_TAG, String.valueOf(champion.getText()));
+                String user = String.valueOf(username.getText());
+                if (!user.equals(pref.getString(USERNAME_TAG, ""))) {
+                    new SummonerCache(getApplicationContext()).clear();
+                }
+                editor.putString(USERNAME_TAG, user);
+                editor.putString(CHAMPION_OVERRIDE_TAG, override);
+                // Sent with the next /league_back.
+                editor.putInt(SWEEP_FPS_TAG, sweepFps[secondHand.getSelectedItemPosition()]);
 
                 editor.apply();
             }
@@ -0,0 +1,27 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * What a refresh puts in the /league_back item: the transcoded background and the text drawn
+ * over it.
+ */
+class Payload {
+    /** The background, or null when the watch already holds the one with {@link #hash}. */
+    final byte[] image;
+    final String hash;
+    /** Whether the image already has the dial overlay applied. */
+    final boolean darkened;
+    final String text;
+    final boolean inGame;
+
+    Payload(byte[] image, boolean darkened, String text, boolean inGame) {
+        this(image, ContentHash.of(image), darkened, text, inGame);
+    }
+
+    Payload(byte[] image, String hash, boolean darkened, String text, boolean inGame) {
+        this.image = image;
+        this.hash = hash;
+        this.darkened = darkened;
+        this.text = text;
+        this.inGame = inGame;
+    }
+}
@@ -0,0 +1,183 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last /league_back payload ready so a watch request can be answered straight away, and
+ * decides when it should be fetched again in the background: often while the summoner is in a
+ * game, rarely otherwise, and not at all once the watch stops asking. The payload is kept on disk
+ * so it survives the process, along with the settings it was built from so that it isn't served
+ * once they change.
+ */
+class PayloadPrefetcher {
+
+    /** Name of the payload file in the app's files dir. */
+    static final String FILE_NAME = "warm_payload.bin";
+
+    /** A payload younger than this is sent without fetching it again. */
+    static final long FRESH_MS = TimeUnit.SECONDS.toMillis(60);
+
+    static final long IN_GAME_POLL_MS = TimeUnit.MINUTES.toMillis(2);
+    static final long IDLE_POLL_MS = TimeUnit.MINUTES.toMillis(15);
+
+    /** Polling stops when the watch hasn't asked for this long, e.g. the face isn't shown. */
+    static final long WATCH_IDLE_MS = TimeUnit.HOURS.toMillis(2);
+
+    private static final int FORMAT_VERSION = 2;
+
+    private final File mFile;
+    private boolean mLoaded;
+
+    private int mWidth;
+    private int mHeight;
+    private long mLastRequestMs;
+    private Payload mPayload;
+    private String mSettings;
+    private long mFetchedAtMs;
+
+    PayloadPrefetcher(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Records a watch request, which keeps the polling going and sets the screen size payloads
+     * are built for.
+     */
+    synchronized void onWatchRequest(int width, int height, long now) {
+        load();
+        mLastRequestMs = now;
+        if (width != mWidth || height != mHeight) {
+            mWidth = width;
+            mHeight = height;
+            mPayload = null;
+        }
+    }
+
+    synchronized int getWidth() {
+        load();
+        return mWidth;
+    }
+
+    synchronized int getHeight() {
+        load();
+        return mHeight;
+    }
+
+    /**
+     * Returns the payload for the current screen size, however old, or null if there isn't one or
+     * it was built from other settings.
+     *
+     * @param settings the settings the payload would be built from now, as passed to {@link #put}
+     */
+    synchronized Payload get(String settings) {
+        load();
+        return settings.equals(mSettings) ? mPayload : null;
+    }
+
+    synchronized boolean isFresh(long now) {
+        load();
+        return mPayload != null && now - mFetchedAtMs < FRESH_MS;
+    }
+
+    /**
+     * Stores a payload built for the current screen size. A payload without an image means the
+     * background hasn't changed, so the one held is kept with the new text.
+     *
+     * @param settings the settings the payload was built from, e.g. the username and override
+     */
+    synchronized void put(Payload payload, String settings, long now) throws IOException {
+        load();
+        if (payload.image == null) {
+            if (mPayload == null || !mPayload.hash.equals(payload.hash) || !settings.equals(mSettings)) {
+                return;
+            }
+            payload = new Payload(mPayload.image, mPayload.hash, payload.darkened, payload.text, payload.inGame);
+        }
+        mPayload = payload;
+        mSettings = settings;
+        mFetchedAtMs = now;
+        save();
+    }
+
+    /**
+     * Returns when the payload should next be fetched in the background, or -1 if it shouldn't.
+     */
+    synchronized long getNextPollMs(long now) {
+        load();
+        if (mPayload == null || now - mLastRequestMs >= WATCH_IDLE_MS) {
+            return -1;
+        }
+        return mFetchedAtMs + (mPayload.inGame ? IN_GAME_POLL_MS : IDLE_POLL_MS);
+    }
+
+    private void load() {
+        if (mLoaded) {
+            return;
+        }
+        mLoaded = true;
+        if (!mFile.exists()) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(mFile));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return;
+                }
+                int width = in.readInt();
+                int height = in.readInt();
+                long lastRequestMs = in.readLong();
+                long fetchedAtMs = in.readLong();
+                String settings = in.readUTF();
+                String hash = in.readUTF();
+                boolean darkened = in.readBoolean();
+                String text = in.readUTF();
+                boolean inGame = in.readBoolean();
+                byte[] image = new byte[in.readInt()];
+                in.readFully(image);
+
+                mWidth = width;
+                mHeight = height;
+                mLastRequestMs = lastRequestMs;
+                mFetchedAtMs = fetchedAtMs;
+                mSettings = settings;
+                mPayload = new Payload(image, hash, darkened, text, inGame);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Built again on the next request.
+            e.printStackTrace();
+        }
+    }
+
+    private void save() throws IOException {
+        File tmp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(mWidth);
+            out.writeInt(mHeight);
+            out.writeLong(mLastRequestMs);
+            out.writeLong(mFetchedAtMs);
+            out.writeUTF(mSettings);
+            out.writeUTF(mPayload.hash);
+            out.writeBoolean(mPayload.darkened);
+            out.writeUTF(mPayload.text);
+            out.writeBoolean(mPayload.inGame);
+            out.writeInt(mPayload.image.length);
+            out.write(mPayload.image);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(mFile)) {
+            throw new IOException("Couldn't move payload into place");
+        }
+    }
+}
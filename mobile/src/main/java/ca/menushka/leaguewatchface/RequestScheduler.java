@@ -0,0 +1,255 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces requests so they stay inside Riot's rate limits. Each API key gets a token bucket per
+ * limit window, which is also corrected from the X-Rate-Limit-Count the server reports, and a key
+ * that got a 429 is held back for its Retry-After. The number of requests in flight is capped, and
+ * a request that can't go before its deadline fails instead of waiting.
+ */
+class RequestScheduler {
+
+    static class Limit {
+        final int requests;
+        final long windowMs;
+
+        Limit(int requests, long windowMs) {
+            this.requests = requests;
+            this.windowMs = windowMs;
+        }
+    }
+
+    /**
+     * Counters for {@code dumpsys}, updated from any thread.
+     */
+    static class Metrics {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong throttled = new AtomicLong();
+        final AtomicLong throttledMillis = new AtomicLong();
+        final AtomicLong rateLimited = new AtomicLong();
+        final AtomicLong serverErrors = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong deadlinesMissed = new AtomicLong();
+
+        void dump(PrintWriter out) {
+            out.println("requests: " + requests.get());
+            out.println("throttled: " + throttled.get() + " (" + throttledMillis.get() + " ms waiting)");
+            out.println("429s: " + rateLimited.get());
+            out.println("5xxs: " + serverErrors.get());
+            out.println("retries: " + retries.get());
+            out.println("deadlines missed: " + deadlinesMissed.get());
+        }
+    }
+
+    private static class Bucket {
+        final Limit limit;
+        double tokens;
+        long refilledAt;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.requests;
+            this.refilledAt = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(limit.requests, tokens + (now - refilledAt) * limit.requests / (double) limit.windowMs);
+            refilledAt = now;
+        }
+
+        long waitMs() {
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * limit.windowMs / limit.requests);
+        }
+    }
+
+    private static class KeyState {
+        final Bucket[] buckets;
+        long blockedUntil;
+
+        KeyState(Limit[] limits, long now) {
+            buckets = new Bucket[limits.length];
+            for (int i = 0; i < limits.length; i++) {
+                buckets[i] = new Bucket(limits[i], now);
+            }
+        }
+    }
+
+    final Metrics metrics = new Metrics();
+
+    private final Limit[] mLimits;
+    private final long mRetryBaseMs;
+    private final Semaphore mInFlight;
+    private final HashMap<String, KeyState> mKeys = new HashMap<>();
+    private final Random mRandom = new Random();
+
+    /**
+     * @param retryBaseMs delay before the first retry, doubled for each one after it
+     */
+    RequestScheduler(int maxInFlight, long retryBaseMs, Limit... limits) {
+        mInFlight = new Semaphore(maxInFlight, true);
+        mRetryBaseMs = retryBaseMs;
+        mLimits = limits;
+    }
+
+    /**
+     * Blocks until a request for {@code key} may go out and takes a token for it. Returns false,
+     * without taking anything, if that wouldn't happen before {@code deadline}. Requests without a
+     * key are only limited in how many are in flight. Every successful call must be matched by
+     * {@link #release()}.
+     */
+    boolean acquire(String key, long deadline) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        if (!mInFlight.tryAcquire(deadline - start, TimeUnit.MILLISECONDS)) {
+            metrics.deadlinesMissed.incrementAndGet();
+            return false;
+        }
+        metrics.requests.incrementAndGet();
+        if (key == null) {
+            return true;
+        }
+        boolean waited = false;
+        synchronized (this) {
+            while (true) {
+                long now = System.currentTimeMillis();
+                long waitMs = takeOrGetWait(key, now);
+                if (waitMs == 0) {
+                    break;
+                }
+                if (now + waitMs > deadline) {
+                    mInFlight.release();
+                    metrics.deadlinesMissed.incrementAndGet();
+                    return false;
+                }
+                waited = true;
+                wait(waitMs);
+            }
+        }
+        if (waited) {
+            metrics.throttled.incrementAndGet();
+            metrics.throttledMillis.addAndGet(System.currentTimeMillis() - start);
+        }
+        return true;
+    }
+
+    void release() {
+        mInFlight.release();
+    }
+
+    /**
+     * Takes a token from every bucket of {@code key} and returns 0, or returns how long to wait
+     * before trying again.
+     */
+    private long takeOrGetWait(String key, long now) {
+        KeyState state = getState(key, now);
+        long waitMs = Math.max(0, state.blockedUntil - now);
+        for (Bucket bucket : state.buckets) {
+            bucket.refill(now);
+            waitMs = Math.max(waitMs, bucket.waitMs());
+        }
+        if (waitMs == 0) {
+            for (Bucket bucket : state.buckets) {
+                bucket.tokens -= 1;
+            }
+        }
+        return waitMs;
+    }
+
+    private KeyState getState(String key, long now) {
+        KeyState state = mKeys.get(key);
+        if (state == null) {
+            state = new KeyState(mLimits, now);
+            mKeys.put(key, state);
+        }
+        return state;
+    }
+
+    /**
+     * Updates the limits of {@code key} from a response.
+     *
+     * @param retryAfter     the Retry-After header, in seconds, or null
+     * @param rateLimitCount the X-Rate-Limit-Count header, e.g. "3:1,47:120", or null
+     */
+    void onResponse(String key, int code, String retryAfter, String rateLimitCount) {
+        if (code == 429) {
+            metrics.rateLimited.incrementAndGet();
+        } else if (code >= 500) {
+            metrics.serverErrors.incrementAndGet();
+        }
+        if (key == null) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            KeyState state = getState(key, now);
+            if (rateLimitCount != null) {
+                applyCounts(state, rateLimitCount, now);
+            }
+            if (code == 429) {
+                long retryAfterMs = parseRetryAfterMs(retryAfter);
+                if (retryAfterMs > 0) {
+                    state.blockedUntil = Math.max(state.blockedUntil, now + retryAfterMs);
+                } else {
+                    // No hint, so assume the shortest window is used up.
+                    for (Bucket bucket : state.buckets) {
+                        bucket.refill(now);
+                        bucket.tokens = Math.min(bucket.tokens, 0);
+                    }
+                }
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * The server counts every request on the key, including other devices', so never assume
+     * more tokens than it says are left.
+     */
+    private static void applyCounts(KeyState state, String header, long now) {
+        for (String pair : header.split(",")) {
+            int colon = pair.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            try {
+                int count = Integer.parseInt(pair.substring(0, colon).trim());
+                long windowMs = TimeUnit.SECONDS.toMillis(Long.parseLong(pair.substring(colon + 1).trim()));
+                for (Bucket bucket : state.buckets) {
+                    if (bucket.limit.windowMs == windowMs) {
+                        bucket.refill(now);
+                        bucket.tokens = Math.min(bucket.tokens, bucket.limit.requests - count);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // Ignore what we can't read, the local buckets still apply.
+            }
+        }
+    }
+
+    static long parseRetryAfterMs(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the delay before retry number {@code attempt} (from 0): exponential, with jitter so
+     * clients that failed together don't retry together.
+     */
+    long getRetryDelayMs(int attempt) {
+        long max = mRetryBaseMs << Math.min(attempt, 10);
+        synchronized (mRandom) {
+            return max / 2 + (long) (mRandom.nextDouble() * (max / 2));
+        }
+    }
+}
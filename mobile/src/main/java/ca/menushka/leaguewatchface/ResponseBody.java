@@ -0,0 +1,87 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A response body read into a buffer that is kept and reused for the next response, so a refresh
+ * doesn't allocate a new one for every request.
+ */
+class ResponseBody {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private byte[] mData;
+    private int mLength;
+
+    ResponseBody(int initialCapacity) {
+        mData = new byte[initialCapacity];
+    }
+
+    /**
+     * Replaces the contents with everything in {@code in} and closes it.
+     *
+     * @param expectedLength the Content-Length of the body, or -1 if it isn't known
+     */
+    void read(InputStream in, int expectedLength) throws IOException {
+        mLength = 0;
+        if (expectedLength > mData.length) {
+            mData = new byte[expectedLength];
+        }
+        try {
+            while (true) {
+                if (mLength == mData.length) {
+                    // Only grow if there's more, so a body of exactly the expected length fits.
+                    int next = in.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    mData = Arrays.copyOf(mData, mData.length * 2);
+                    mData[mLength++] = (byte) next;
+                }
+                int read = in.read(mData, mLength, mData.length - mLength);
+                if (read == -1) {
+                    break;
+                }
+                mLength += read;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Replaces the contents with a copy of {@code data}.
+     */
+    void set(byte[] data) {
+        if (data.length > mData.length) {
+            mData = new byte[data.length];
+        }
+        System.arraycopy(data, 0, mData, 0, data.length);
+        mLength = data.length;
+    }
+
+    int length() {
+        return mLength;
+    }
+
+    int capacity() {
+        return mData.length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(mData, mLength);
+    }
+
+    /**
+     * Reads the body as UTF-8 text, without copying it.
+     */
+    Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(mData, 0, mLength), UTF_8);
+    }
+}
@@ -0,0 +1,185 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw API response bodies kept in a small in-memory LRU backed by files on disk. How long a
+ * response stays fresh is set per URL template from {@link LeagueData}; URLs that match no template
+ * aren't cached at all. Entries outlive their TTL so they can be revalidated with their validators
+ * or served stale when the network fails.
+ */
+class ResponseCache {
+
+    static class Entry {
+        final byte[] body;
+        final String etag;
+        final String lastModified;
+        final long fetchedAt;
+
+        Entry(byte[] body, String etag, String lastModified, long fetchedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isFresh(long now, long ttlMs) {
+            return now - fetchedAt < ttlMs;
+        }
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File mDir;
+    private final int mMaxDiskEntries;
+    private final LinkedHashMap<String, Entry> mMemory;
+    private final List<String> mPrefixes = new ArrayList<>();
+    private final List<Long> mTtls = new ArrayList<>();
+
+    ResponseCache(File dir, final int maxMemoryEntries, int maxDiskEntries) {
+        mDir = dir;
+        mMaxDiskEntries = maxDiskEntries;
+        mMemory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Caches URLs built from {@code template} for {@code ttlMs}. Only the part of the template
+     * before its first format specifier is matched.
+     */
+    synchronized void setTtl(String template, long ttlMs) {
+        int end = template.indexOf('%');
+        mPrefixes.add(end < 0 ? template : template.substring(0, end));
+        mTtls.add(ttlMs);
+    }
+
+    /**
+     * Returns how long a response for {@code url} stays fresh, or 0 if it isn't cached.
+     */
+    synchronized long getTtl(String url) {
+        for (int i = 0; i < mPrefixes.size(); i++) {
+            if (url.startsWith(mPrefixes.get(i))) {
+                return mTtls.get(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the entry for {@code url}, fresh or not, or null if there isn't one.
+     */
+    synchronized Entry get(String url) {
+        Entry entry = mMemory.get(url);
+        if (entry != null) {
+            return entry;
+        }
+        entry = read(file(url));
+        if (entry != null) {
+            mMemory.put(url, entry);
+        }
+        return entry;
+    }
+
+    synchronized void put(String url, Entry entry) {
+        if (getTtl(url) <= 0) {
+            return;
+        }
+        mMemory.put(url, entry);
+        try {
+            write(file(url), entry);
+            trim();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    synchronized void remove(String url) {
+        mMemory.remove(url);
+        file(url).delete();
+    }
+
+    private File file(String url) {
+        // URLs carry the API key, so files are named by hash.
+        return new File(mDir, ContentHash.of(url.getBytes(UTF_8)));
+    }
+
+    private static Entry read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                long fetchedAt = in.readLong();
+                String etag = in.readUTF();
+                String lastModified = in.readUTF();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                return new Entry(body, etag.length() == 0 ? null : etag,
+                        lastModified.length() == 0 ? null : lastModified, fetchedAt);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // A truncated or corrupt entry is just a miss.
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(File file, Entry entry) throws IOException {
+        if (!mDir.isDirectory() && !mDir.mkdirs()) {
+            throw new IOException("Couldn't create " + mDir);
+        }
+        File tmp = new File(mDir, file.getName() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            out.writeLong(entry.fetchedAt);
+            out.writeUTF(entry.etag == null ? "" : entry.etag);
+            out.writeUTF(entry.lastModified == null ? "" : entry.lastModified);
+            out.writeInt(entry.body.length);
+            out.write(entry.body);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Couldn't move cache entry into place");
+        }
+    }
+
+    /**
+     * Deletes the least recently written files beyond the disk limit.
+     */
+    private void trim() {
+        File[] files = mDir.listFiles();
+        if (files == null || files.length <= mMaxDiskEntries) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = b.lastModified() - a.lastModified();
+                return diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            }
+        });
+        for (int i = mMaxDiskEntries; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+}
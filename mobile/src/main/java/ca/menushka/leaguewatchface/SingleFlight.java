@@ -0,0 +1,74 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a task at most once at a time. A caller that arrives while it's running waits for that run
+ * and gets its result, or its exception, instead of starting another.
+ */
+class SingleFlight<T> {
+
+    interface Task<T> {
+        T run() throws IOException;
+    }
+
+    private static class Call<T> {
+        final CountDownLatch done = new CountDownLatch(1);
+        T result;
+        IOException error;
+        RuntimeException crash;
+    }
+
+    /** How many callers were given another caller's result. */
+    final AtomicLong joined = new AtomicLong();
+
+    private Call<T> mCall;
+
+    T run(Task<T> task) throws IOException {
+        Call<T> call;
+        boolean leader = false;
+        synchronized (this) {
+            if (mCall == null) {
+                mCall = new Call<>();
+                leader = true;
+            }
+            call = mCall;
+        }
+
+        if (!leader) {
+            joined.incrementAndGet();
+            try {
+                call.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a run in progress");
+            }
+            if (call.crash != null) {
+                throw call.crash;
+            }
+            if (call.error != null) {
+                throw call.error;
+            }
+            return call.result;
+        }
+
+        try {
+            call.result = task.run();
+            return call.result;
+        } catch (IOException e) {
+            call.error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            call.crash = e;
+            throw e;
+        } finally {
+            synchronized (this) {
+                mCall = null;
+            }
+            call.done.countDown();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Downloaded champion splashes, by champion key and skin, in a size-capped directory. The least
+ * recently used files are evicted past the cap, files are written to a temporary name and renamed
+ * into place, and the last splash used is also kept in memory since refreshes keep asking for it.
+ */
+class SplashCache {
+
+    private final File mDir;
+    private final long mMaxBytes;
+
+    private String mRecentName;
+    private byte[] mRecent;
+
+    SplashCache(File dir, long maxBytes) {
+        mDir = dir;
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the splash from the cache, downloading it if it isn't there.
+     */
+    byte[] load(String championKey, int skinId) throws IOException {
+        byte[] data = get(championKey, skinId);
+        if (data == null) {
+            data = LeagueAPI.download(LeagueData.getChampionSplashUrl(championKey, skinId));
+            put(championKey, skinId, data);
+        }
+        return data;
+    }
+
+    /**
+     * Returns the cached splash, or null if there isn't one.
+     */
+    synchronized byte[] get(String championKey, int skinId) {
+        String name = fileName(championKey, skinId);
+        if (name.equals(mRecentName)) {
+            return mRecent;
+        }
+        File file = new File(mDir, name);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            byte[] data = new byte[(int) file.length()];
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                in.readFully(data);
+            } finally {
+                in.close();
+            }
+            file.setLastModified(System.currentTimeMillis());
+            remember(name, data);
+            return data;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    synchronized void put(String championKey, int skinId, byte[] data) throws IOException {
+        if (!mDir.isDirectory() && !mDir.mkdirs()) {
+            throw new IOException("Couldn't create " + mDir);
+        }
+        String name = fileName(championKey, skinId);
+        File file = new File(mDir, name);
+        File tmp = new File(mDir, name + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Couldn't move splash into place");
+        }
+        remember(name, data);
+        trim();
+    }
+
+    /**
+     * Drops a splash that turned out to be unusable.
+     */
+    synchronized void remove(String championKey, int skinId) {
+        String name = fileName(championKey, skinId);
+        if (name.equals(mRecentName)) {
+            mRecentName = null;
+            mRecent = null;
+        }
+        new File(mDir, name).delete();
+    }
+
+    private void remember(String name, byte[] data) {
+        mRecentName = name;
+        mRecent = data;
+    }
+
+    /**
+     * Deletes the least recently used splashes until the rest fit under the cap.
+     */
+    private void trim() {
+        File[] files = mDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = b.lastModified() - a.lastModified();
+                return diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            }
+        });
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+            // The newest file always stays, even on its own over the cap.
+            if (total > mMaxBytes && file != files[0]) {
+                file.delete();
+                if (file.getName().equals(mRecentName)) {
+                    mRecentName = null;
+                    mRecent = null;
+                }
+            }
+        }
+    }
+
+    private static String fileName(String championKey, int skinId) {
+        // Keys are plain identifiers like "MonkeyKing", but don't trust them with a path.
+        return championKey.replaceAll("[^A-Za-z0-9]", "_") + "_" + skinId + ".jpg";
+    }
+}
@@ -0,0 +1,57 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summoner ids by name, kept across restarts so a refresh doesn't need a by-name lookup. Names are
+ * normalized the way {@link LeagueData#getSummonerInfoUrl} sends them, and ignoring case like the
+ * API does. An id older than {@link #TTL_MS} is still used, but should be looked up again.
+ */
+class SummonerCache {
+
+    static final long TTL_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static final String PREFS_NAME = "summoners";
+    private static final String ID_SUFFIX = ".id";
+    private static final String TIME_SUFFIX = ".time";
+
+    private final SharedPreferences mPrefs;
+
+    SummonerCache(Context context) {
+        mPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    static String key(String name) {
+        return LeagueData.normalizeSummonerName(name).toLowerCase(Locale.US);
+    }
+
+    /**
+     * Returns the stored id for {@code name}, or {@link LeagueParser#NOT_FOUND}.
+     */
+    long getId(String name) {
+        return mPrefs.getLong(key(name) + ID_SUFFIX, LeagueParser.NOT_FOUND);
+    }
+
+    boolean isStale(String name, long now) {
+        return now - mPrefs.getLong(key(name) + TIME_SUFFIX, 0) >= TTL_MS;
+    }
+
+    void put(String name, long id, long now) {
+        String key = key(name);
+        mPrefs.edit()
+                .putLong(key + ID_SUFFIX, id)
+                .putLong(key + TIME_SUFFIX, now)
+                .apply();
+    }
+
+    /**
+     * Forgets every summoner, for when the tracked username changes.
+     */
+    void clear() {
+        mPrefs.edit().clear().apply();
+    }
+}
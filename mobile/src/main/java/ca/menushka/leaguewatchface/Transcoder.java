@@ -0,0 +1,71 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Turns a full size splash into what the watch actually shows: center-cropped to the watch's
+ * aspect ratio, scaled to its screen, and lossy encoded. It can also apply the dial's darkening
+ * overlay up front, which the watch then skips; the darker image also compresses better.
+ */
+class Transcoder {
+
+    /**
+     * Alpha of the black overlay the watch draws over the background, 70%.
+     */
+    static final int OVERLAY_ALPHA = 255 * 70 / 100;
+
+    /**
+     * Screen size assumed for watches that don't report theirs.
+     */
+    static final int DEFAULT_SIZE = 400;
+
+    private final Bitmap.CompressFormat mFormat;
+    private final int mQuality;
+    private final boolean mDarken;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    Transcoder(Bitmap.CompressFormat format, int quality, boolean darken) {
+        mFormat = format;
+        mQuality = quality;
+        mDarken = darken;
+    }
+
+    boolean darkens() {
+        return mDarken;
+    }
+
+    byte[] transcode(Bitmap source, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            width = DEFAULT_SIZE;
+            height = DEFAULT_SIZE;
+        }
+        // Never scale up, the watch can do that just as well from fewer bytes.
+        float scale = Math.min(1f, Math.max(width / (float) source.getWidth(), height / (float) source.getHeight()));
+        int outWidth = Math.min(width, Math.round(source.getWidth() * scale));
+        int outHeight = Math.min(height, Math.round(source.getHeight() * scale));
+        int cropWidth = Math.min(source.getWidth(), Math.round(outWidth / scale));
+        int cropHeight = Math.min(source.getHeight(), Math.round(outHeight / scale));
+
+        int left = (source.getWidth() - cropWidth) / 2;
+        int top = (source.getHeight() - cropHeight) / 2;
+        Rect src = new Rect(left, top, left + cropWidth, top + cropHeight);
+
+        Bitmap out = Bitmap.createBitmap(outWidth, outHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(out);
+        canvas.drawBitmap(source, src, new Rect(0, 0, outWidth, outHeight), mPaint);
+        if (mDarken) {
+            canvas.drawColor(Color.argb(OVERLAY_ALPHA, 0, 0, 0));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        out.compress(mFormat, mQuality, bytes);
+        out.recycle();
+        return bytes.toByteArray();
+    }
+}
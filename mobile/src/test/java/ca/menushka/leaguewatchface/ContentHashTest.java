@@ -0,0 +1,18 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContentHashTest {
+
+    @Test
+    public void of_isHexSha1() throws Exception {
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", ContentHash.of("abc".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void of_differsForDifferentContent() throws Exception {
+        assertNotEquals(ContentHash.of(new byte[]{1, 2, 3}), ContentHash.of(new byte[]{1, 2, 4}));
+    }
+}
@@ -0,0 +1,73 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class GameStateStoreTest {
+
+    private static final GameState STATE = new GameState(37846796, 2187654321L, true, 84, 0);
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mFile;
+    private GameStateStore mStore;
+    private Payload mSent;
+
+    @Before
+    public void setUp() throws Exception {
+        mFile = new File(mFolder.getRoot(), GameStateStore.FILE_NAME);
+        mStore = new GameStateStore(mFile);
+        mSent = new Payload(new byte[]{1, 2, 3}, true, "Faker", true);
+    }
+
+    @Test
+    public void empty_isChanged() {
+        assertNull(mStore.getUnchanged(STATE, "Faker", 400, 400, ""));
+        assertEquals(0, mStore.skipped.get());
+    }
+
+    @Test
+    public void sameState_isAcknowledgedWithoutImage() throws Exception {
+        mStore.put(STATE, 400, 400, mSent);
+        Payload ack = mStore.getUnchanged(new GameState(37846796, 2187654321L, true, 84, 0), "Faker", 400, 400, mSent.hash);
+        assertNotNull(ack);
+        assertNull(ack.image);
+        assertEquals(mSent.hash, ack.hash);
+        assertEquals("Faker", ack.text);
+        assertTrue(ack.inGame);
+        assertTrue(ack.darkened);
+        assertEquals(1, mStore.skipped.get());
+    }
+
+    @Test
+    public void newGame_isChanged() throws Exception {
+        mStore.put(STATE, 400, 400, mSent);
+        assertNull(mStore.getUnchanged(new GameState(37846796, 2187654322L, true, 84, 0), "Faker", 400, 400, mSent.hash));
+        assertNull(mStore.getUnchanged(new GameState(37846796, 2187654321L, false, 84, 0), "Faker", 400, 400, mSent.hash));
+        assertNull(mStore.getUnchanged(new GameState(37846796, 2187654321L, true, 84, 1), "Faker", 400, 400, mSent.hash));
+    }
+
+    @Test
+    public void watchWithoutImage_isChanged() throws Exception {
+        mStore.put(STATE, 400, 400, mSent);
+        assertNull(mStore.getUnchanged(STATE, "Faker", 400, 400, ""));
+        assertNull(mStore.getUnchanged(STATE, "Faker", 320, 320, mSent.hash));
+        assertNull(mStore.getUnchanged(STATE, "faker", 400, 400, mSent.hash));
+    }
+
+    @Test
+    public void state_survivesNewStore() throws Exception {
+        mStore.put(STATE, 400, 400, mSent);
+        GameStateStore store = new GameStateStore(mFile);
+        Payload ack = store.getUnchanged(STATE, "Faker", 400, 400, mSent.hash);
+        assertNotNull(ack);
+        assertEquals(mSent.hash, ack.hash);
+    }
+}
@@ -0,0 +1,19 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LeagueDataTest {
+
+    @Test
+    public void normalizeSummonerName_stripsSpaces() throws Exception {
+        assertEquals("HideonBush", LeagueData.normalizeSummonerName("Hide on Bush"));
+    }
+
+    @Test
+    public void urls_keepLongIds() throws Exception {
+        assertTrue(LeagueData.getRecentMatchesUrl(3000000000L).contains("/3000000000/"));
+        assertTrue(LeagueData.getCurrentGameByIdUrl(3000000000L).contains("/3000000000?"));
+    }
+}
@@ -0,0 +1,127 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class PayloadPrefetcherTest {
+
+    private static final long NOW = 1463872547000L;
+    private static final String SETTINGS = "Faker\n";
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mFile;
+    private PayloadPrefetcher mPrefetcher;
+    private Payload mPayload;
+
+    @Before
+    public void setUp() throws Exception {
+        mFile = new File(mFolder.getRoot(), PayloadPrefetcher.FILE_NAME);
+        mPrefetcher = new PayloadPrefetcher(mFile);
+        mPayload = new Payload(new byte[]{1, 2, 3}, true, "Faker", false);
+    }
+
+    @Test
+    public void empty_hasNothingToPoll() {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        assertNull(mPrefetcher.get(SETTINGS));
+        assertFalse(mPrefetcher.isFresh(NOW));
+        assertEquals(-1, mPrefetcher.getNextPollMs(NOW));
+    }
+
+    @Test
+    public void put_isFreshThenStale() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        assertSame(mPayload, mPrefetcher.get(SETTINGS));
+        assertTrue(mPrefetcher.isFresh(NOW + PayloadPrefetcher.FRESH_MS - 1));
+        assertFalse(mPrefetcher.isFresh(NOW + PayloadPrefetcher.FRESH_MS));
+        // Stale payloads are still served, and fetched again behind the scenes.
+        assertSame(mPayload, mPrefetcher.get(SETTINGS));
+    }
+
+    @Test
+    public void inGame_pollsFaster() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        assertEquals(NOW + PayloadPrefetcher.IDLE_POLL_MS, mPrefetcher.getNextPollMs(NOW));
+
+        mPrefetcher.put(new Payload(new byte[]{4, 5}, true, "Faker", true), SETTINGS, NOW);
+        assertEquals(NOW + PayloadPrefetcher.IN_GAME_POLL_MS, mPrefetcher.getNextPollMs(NOW));
+    }
+
+    @Test
+    public void idleWatch_stopsPolling() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        assertEquals(-1, mPrefetcher.getNextPollMs(NOW + PayloadPrefetcher.WATCH_IDLE_MS));
+
+        mPrefetcher.onWatchRequest(400, 400, NOW + PayloadPrefetcher.WATCH_IDLE_MS);
+        assertTrue(mPrefetcher.getNextPollMs(NOW + PayloadPrefetcher.WATCH_IDLE_MS) >= 0);
+    }
+
+    @Test
+    public void acknowledgement_keepsImage() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        mPrefetcher.put(new Payload(null, mPayload.hash, true, "Faker", true), SETTINGS, NOW + 1000);
+
+        Payload warm = mPrefetcher.get(SETTINGS);
+        assertArrayEquals(mPayload.image, warm.image);
+        assertTrue(warm.inGame);
+        assertTrue(mPrefetcher.isFresh(NOW + 1000));
+    }
+
+    @Test
+    public void acknowledgement_forOtherImage_isIgnored() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(new Payload(null, "other", true, "Faker", false), SETTINGS, NOW);
+        assertNull(mPrefetcher.get(SETTINGS));
+    }
+
+    @Test
+    public void newScreenSize_dropsPayload() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        mPrefetcher.onWatchRequest(320, 320, NOW);
+        assertNull(mPrefetcher.get(SETTINGS));
+        assertEquals(320, mPrefetcher.getWidth());
+    }
+
+    @Test
+    public void payload_survivesNewPrefetcher() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+
+        PayloadPrefetcher prefetcher = new PayloadPrefetcher(mFile);
+        Payload warm = prefetcher.get(SETTINGS);
+        assertArrayEquals(mPayload.image, warm.image);
+        assertEquals(mPayload.hash, warm.hash);
+        assertEquals("Faker", warm.text);
+        assertEquals(400, prefetcher.getHeight());
+        assertEquals(NOW + PayloadPrefetcher.IDLE_POLL_MS, prefetcher.getNextPollMs(NOW));
+    }
+
+    @Test
+    public void otherSettings_notServed() throws Exception {
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, SETTINGS, NOW);
+        assertNull(mPrefetcher.get("Faker\nAhri"));
+        assertNull(mPrefetcher.get("Dyrus\n"));
+    }
+
+    @Test
+    public void unknownOverride_servedForSameSettings() throws Exception {
+        // An override that isn't a champion falls back to showing the username.
+        mPrefetcher.onWatchRequest(400, 400, NOW);
+        mPrefetcher.put(mPayload, "Faker\nNotAChampion", NOW);
+        assertSame(mPayload, mPrefetcher.get("Faker\nNotAChampion"));
+    }
+}
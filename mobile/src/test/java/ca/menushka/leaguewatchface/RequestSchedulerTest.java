@@ -0,0 +1,175 @@
+package ca.menushka.leaguewatchface;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Paces {@link LeagueAPI#get} against a local stand-in for the Riot API that answers with 429s
+ * and 5xxs.
+ */
+public class RequestSchedulerTest {
+
+    private HttpServer mServer;
+    private String mBaseUrl;
+    private RequestScheduler mScheduler;
+    private final AtomicInteger mRequests = new AtomicInteger();
+    private volatile int mFailures;
+    private volatile int mStatus = 429;
+    private volatile String mRetryAfter;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (mRequests.incrementAndGet() <= mFailures) {
+                    if (mRetryAfter != null) {
+                        exchange.getResponseHeaders().set("Retry-After", mRetryAfter);
+                    }
+                    exchange.sendResponseHeaders(mStatus, -1);
+                } else {
+                    byte[] body = "{\"ok\":true}".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                }
+                exchange.close();
+            }
+        });
+        mServer.start();
+        mBaseUrl = "http://127.0.0.1:" + mServer.getAddress().getPort();
+
+        mScheduler = new RequestScheduler(2, 10, new RequestScheduler.Limit(5, 1000));
+        LeagueAPI.setScheduler(mScheduler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LeagueAPI.setScheduler(LeagueAPI.createScheduler());
+        mServer.stop(0);
+    }
+
+    @Test
+    public void rateLimited_waitsForRetryAfter() throws Exception {
+        mFailures = 1;
+        mRetryAfter = "1";
+        long start = System.currentTimeMillis();
+        ResponseBody body = LeagueAPI.get(mBaseUrl + "/game?api_key=test");
+        assertNotNull(body);
+        assertEquals("{\"ok\":true}", new String(body.toByteArray(), "UTF-8"));
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(2, mRequests.get());
+        assertEquals(1, mScheduler.metrics.rateLimited.get());
+        assertEquals(1, mScheduler.metrics.retries.get());
+    }
+
+    @Test
+    public void serverErrors_retriedAFewTimes() throws Exception {
+        mFailures = Integer.MAX_VALUE;
+        mStatus = 503;
+        assertNull(LeagueAPI.get(mBaseUrl + "/game?api_key=test"));
+        assertEquals(3, mRequests.get());
+        assertEquals(3, mScheduler.metrics.serverErrors.get());
+    }
+
+    @Test
+    public void notFound_notRetried() throws Exception {
+        mFailures = 1;
+        mStatus = 404;
+        assertNull(LeagueAPI.get(mBaseUrl + "/game?api_key=test"));
+        assertEquals(1, mRequests.get());
+    }
+
+    @Test
+    public void bucket_throttlesBurst() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(10, 10, new RequestScheduler.Limit(2, 200));
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(scheduler.acquire("key", start + 1000));
+            scheduler.release();
+        }
+        // Two go straight away, the other two wait 100ms each for a token.
+        assertTrue(System.currentTimeMillis() - start >= 190);
+        assertEquals(2, scheduler.metrics.throttled.get());
+    }
+
+    @Test
+    public void bucket_keysAreSeparate() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(10, 10, new RequestScheduler.Limit(1, 60000));
+        long deadline = System.currentTimeMillis() + 100;
+        assertTrue(scheduler.acquire("a", deadline));
+        assertTrue(scheduler.acquire("b", deadline));
+        assertTrue(scheduler.acquire(null, deadline));
+        assertTrue(scheduler.acquire(null, deadline));
+    }
+
+    @Test
+    public void deadline_failsInsteadOfWaiting() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(10, 10, new RequestScheduler.Limit(1, 60000));
+        long start = System.currentTimeMillis();
+        assertTrue(scheduler.acquire("key", start + 100));
+        scheduler.release();
+        assertFalse(scheduler.acquire("key", start + 100));
+        assertTrue(System.currentTimeMillis() - start < 100);
+        assertEquals(1, scheduler.metrics.deadlinesMissed.get());
+    }
+
+    @Test
+    public void deadline_coversInFlightLimit() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 10);
+        assertTrue(scheduler.acquire(null, System.currentTimeMillis() + 100));
+        assertFalse(scheduler.acquire(null, System.currentTimeMillis() + 50));
+        scheduler.release();
+        assertTrue(scheduler.acquire(null, System.currentTimeMillis() + 50));
+    }
+
+    @Test
+    public void rateLimitCount_usesServerCount() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(10, 10,
+                new RequestScheduler.Limit(10, 1000), new RequestScheduler.Limit(100, 120000));
+        long deadline = System.currentTimeMillis() + 50;
+        assertTrue(scheduler.acquire("key", deadline));
+        scheduler.release();
+        // Other clients on the key have used up the second window.
+        scheduler.onResponse("key", 200, null, "1:1,100:120");
+        assertFalse(scheduler.acquire("key", deadline));
+    }
+
+    @Test
+    public void rateLimited_withoutRetryAfter_emptiesBuckets() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(10, 10, new RequestScheduler.Limit(10, 60000));
+        scheduler.onResponse("key", 429, null, null);
+        assertFalse(scheduler.acquire("key", System.currentTimeMillis() + 50));
+    }
+
+    @Test
+    public void keyOf_readsApiKey() {
+        assertEquals("abc", LeagueAPI.keyOf("https://na.api.pvp.net/x?api_key=abc"));
+        assertEquals("abc", LeagueAPI.keyOf("https://global.api.pvp.net/x?api_key=abc&dataById=true"));
+        assertNull(LeagueAPI.keyOf("http://ddragon.leagueoflegends.com/cdn/img/champion/splash/Ahri_0.jpg"));
+    }
+
+    @Test
+    public void retryDelay_growsWithJitter() {
+        RequestScheduler scheduler = new RequestScheduler(1, 100);
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long max = 100L << attempt;
+            long delay = scheduler.getRetryDelayMs(attempt);
+            assertTrue(delay >= max / 2 && delay <= max);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+
+import static org.junit.Assert.*;
+
+public class ResponseBodyTest {
+
+    private static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    @Test
+    public void read_growsPastInitialCapacity() throws Exception {
+        ResponseBody body = new ResponseBody(16);
+        body.read(new ByteArrayInputStream(bytes(1000)), -1);
+        assertEquals(1000, body.length());
+        assertArrayEquals(bytes(1000), body.toByteArray());
+    }
+
+    @Test
+    public void read_exactFit_doesNotGrow() throws Exception {
+        ResponseBody body = new ResponseBody(16);
+        body.read(new ByteArrayInputStream(bytes(16)), 16);
+        assertEquals(16, body.capacity());
+        assertArrayEquals(bytes(16), body.toByteArray());
+
+        // One byte past the buffer still grows it without losing that byte.
+        body.read(new ByteArrayInputStream(bytes(17)), -1);
+        assertEquals(32, body.capacity());
+        assertArrayEquals(bytes(17), body.toByteArray());
+    }
+
+    @Test
+    public void read_replacesPreviousContents() throws Exception {
+        ResponseBody body = new ResponseBody(16);
+        body.read(new ByteArrayInputStream(bytes(100)), 100);
+        body.read(new ByteArrayInputStream(bytes(10)), 10);
+        assertArrayEquals(bytes(10), body.toByteArray());
+    }
+
+    @Test
+    public void reader_decodesUtf8() throws Exception {
+        ResponseBody body = new ResponseBody(4);
+        body.read(new ByteArrayInputStream("{\"name\":\"Kha'Zix\u00e9\"}".getBytes("UTF-8")), -1);
+        Reader reader = body.reader();
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            text.append((char) c);
+        }
+        assertEquals("{\"name\":\"Kha'Zix\u00e9\"}", text.toString());
+    }
+}
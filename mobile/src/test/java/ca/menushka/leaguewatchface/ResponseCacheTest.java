@@ -0,0 +1,138 @@
+package ca.menushka.leaguewatchface;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link LeagueAPI#get} against a local stand-in for the Riot API.
+ */
+public class ResponseCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private HttpServer mServer;
+    private String mBaseUrl;
+    private final AtomicInteger mRequests = new AtomicInteger();
+    private final AtomicInteger mNotModified = new AtomicInteger();
+    private volatile int mStatus = 200;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                mRequests.incrementAndGet();
+                if (mStatus != 200) {
+                    exchange.sendResponseHeaders(mStatus, -1);
+                } else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    mNotModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] body = ("{\"path\":\"" + exchange.getRequestURI().getPath() + "\"}").getBytes("UTF-8");
+                    exchange.getResponseHeaders().set("ETag", ETAG);
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                }
+                exchange.close();
+            }
+        });
+        mServer.start();
+        mBaseUrl = "http://127.0.0.1:" + mServer.getAddress().getPort();
+
+        ResponseCache cache = new ResponseCache(mFolder.newFolder("cache"), 4, 8);
+        cache.setTtl(mBaseUrl + "/static/%d", TimeUnit.DAYS.toMillis(1));
+        cache.setTtl(mBaseUrl + "/game/%d", 0);
+        cache.setTtl(mBaseUrl + "/recent/%d", 1);
+        LeagueAPI.setCache(cache);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LeagueAPI.setCache(null);
+        mServer.stop(0);
+    }
+
+    private static String text(ResponseBody body) throws Exception {
+        return new String(body.toByteArray(), "UTF-8");
+    }
+
+    @Test
+    public void freshEntry_skipsNetwork() throws Exception {
+        assertEquals("{\"path\":\"/static/1\"}", text(LeagueAPI.get(mBaseUrl + "/static/1")));
+        assertEquals("{\"path\":\"/static/1\"}", text(LeagueAPI.get(mBaseUrl + "/static/1")));
+        assertEquals(1, mRequests.get());
+    }
+
+    @Test
+    public void uncachedTemplate_alwaysHitsNetwork() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/game/1");
+        LeagueAPI.get(mBaseUrl + "/game/1");
+        assertEquals(2, mRequests.get());
+    }
+
+    @Test
+    public void staleEntry_isRevalidated() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/recent/1");
+        Thread.sleep(5);
+        assertEquals("{\"path\":\"/recent/1\"}", text(LeagueAPI.get(mBaseUrl + "/recent/1")));
+        assertEquals(2, mRequests.get());
+        assertEquals(1, mNotModified.get());
+    }
+
+    @Test
+    public void staleEntry_servedWhenServerFails() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/recent/1");
+        Thread.sleep(5);
+        mStatus = 503;
+        assertEquals("{\"path\":\"/recent/1\"}", text(LeagueAPI.get(mBaseUrl + "/recent/1")));
+    }
+
+    @Test
+    public void staleEntry_servedWhenNetworkFails() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/recent/1");
+        Thread.sleep(5);
+        mServer.stop(0);
+        assertEquals("{\"path\":\"/recent/1\"}", text(LeagueAPI.get(mBaseUrl + "/recent/1")));
+    }
+
+    @Test
+    public void notFound_isNotServedFromCache() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/recent/1");
+        Thread.sleep(5);
+        mStatus = 404;
+        assertNull(LeagueAPI.get(mBaseUrl + "/recent/1"));
+    }
+
+    @Test
+    public void diskTier_survivesNewCache() throws Exception {
+        LeagueAPI.get(mBaseUrl + "/static/1");
+
+        ResponseCache cache = new ResponseCache(new File(mFolder.getRoot(), "cache"), 4, 8);
+        cache.setTtl(mBaseUrl + "/static/%d", TimeUnit.DAYS.toMillis(1));
+        LeagueAPI.setCache(cache);
+        assertEquals("{\"path\":\"/static/1\"}", text(LeagueAPI.get(mBaseUrl + "/static/1")));
+        assertEquals(1, mRequests.get());
+    }
+}
@@ -0,0 +1,108 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String> mFlight = new SingleFlight<>();
+    private final AtomicInteger mRuns = new AtomicInteger();
+    private final CountDownLatch mStarted = new CountDownLatch(1);
+    private final CountDownLatch mFinish = new CountDownLatch(1);
+
+    /** Blocks until {@link #mFinish} is counted down, then returns or throws {@code error}. */
+    private SingleFlight.Task<String> blockingTask(final IOException error) {
+        return new SingleFlight.Task<String>() {
+            @Override
+            public String run() throws IOException {
+                mRuns.incrementAndGet();
+                mStarted.countDown();
+                try {
+                    mFinish.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                if (error != null) {
+                    throw error;
+                }
+                return "run " + mRuns.get();
+            }
+        };
+    }
+
+    /** Calls {@link SingleFlight#run} on another thread, storing what it returns or throws. */
+    private Thread call(final SingleFlight.Task<String> task, final AtomicReference<Object> outcome) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    outcome.set(mFlight.run(task));
+                } catch (IOException e) {
+                    outcome.set(e);
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /** Waits until a second caller is waiting on the run in progress. */
+    private void awaitJoined() throws InterruptedException {
+        while (mFlight.joined.get() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void concurrentCaller_getsSameResult() throws Exception {
+        SingleFlight.Task<String> task = blockingTask(null);
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread leader = call(task, first);
+        mStarted.await();
+        Thread joiner = call(task, second);
+        awaitJoined();
+        mFinish.countDown();
+        leader.join();
+        joiner.join();
+
+        assertEquals(1, mRuns.get());
+        assertEquals("run 1", first.get());
+        assertEquals("run 1", second.get());
+        assertEquals(1, mFlight.joined.get());
+    }
+
+    @Test
+    public void concurrentCaller_getsSameError() throws Exception {
+        IOException error = new IOException("lookup failed");
+        SingleFlight.Task<String> task = blockingTask(error);
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread leader = call(task, first);
+        mStarted.await();
+        Thread joiner = call(task, second);
+        awaitJoined();
+        mFinish.countDown();
+        leader.join();
+        joiner.join();
+
+        assertEquals(1, mRuns.get());
+        assertEquals(error, first.get());
+        assertEquals(error, second.get());
+    }
+
+    @Test
+    public void laterCaller_startsNewRun() throws Exception {
+        mFinish.countDown();
+        SingleFlight.Task<String> task = blockingTask(null);
+        assertEquals("run 1", mFlight.run(task));
+        assertEquals("run 2", mFlight.run(task));
+        assertEquals(0, mFlight.joined.get());
+    }
+}
@@ -0,0 +1,103 @@
+package ca.menushka.leaguewatchface;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SplashCacheTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private HttpServer mServer;
+    private String mSplashTemplate;
+    private final AtomicInteger mRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                mRequests.incrementAndGet();
+                byte[] body = exchange.getRequestURI().getPath().getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+                exchange.close();
+            }
+        });
+        mServer.start();
+        mSplashTemplate = LeagueData.champion_splash;
+        LeagueData.champion_splash = "http://127.0.0.1:" + mServer.getAddress().getPort() + "/splash/%s_%d.jpg";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LeagueData.champion_splash = mSplashTemplate;
+        mServer.stop(0);
+    }
+
+    private static byte[] bytes(int length) {
+        return new byte[length];
+    }
+
+    @Test
+    public void load_downloadsOnce() throws Exception {
+        SplashCache cache = new SplashCache(mFolder.newFolder("splashes"), 1024 * 1024);
+        assertArrayEquals("/splash/Akali_0.jpg".getBytes("UTF-8"), cache.load("Akali", 0));
+        assertArrayEquals("/splash/Akali_0.jpg".getBytes("UTF-8"), cache.load("Akali", 0));
+        assertEquals(1, mRequests.get());
+
+        // A new instance finds it on disk.
+        cache = new SplashCache(new File(mFolder.getRoot(), "splashes"), 1024 * 1024);
+        cache.load("Akali", 0);
+        assertEquals(1, mRequests.get());
+    }
+
+    @Test
+    public void load_keysBySkin() throws Exception {
+        SplashCache cache = new SplashCache(mFolder.newFolder("splashes"), 1024 * 1024);
+        cache.load("Akali", 0);
+        cache.load("Akali", 1);
+        assertEquals(2, mRequests.get());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedPastCap() throws Exception {
+        File dir = mFolder.newFolder("splashes");
+        SplashCache cache = new SplashCache(dir, 250);
+        cache.put("Akali", 0, bytes(100));
+        new File(dir, "Akali_0.jpg").setLastModified(1000);
+        cache.put("Ahri", 0, bytes(100));
+        new File(dir, "Ahri_0.jpg").setLastModified(3000);
+        cache.put("Annie", 0, bytes(100));
+
+        assertNull(new SplashCache(dir, 250).get("Akali", 0));
+        assertNotNull(cache.get("Ahri", 0));
+        assertNotNull(cache.get("Annie", 0));
+    }
+
+    @Test
+    public void remove_dropsMemoryAndDisk() throws Exception {
+        SplashCache cache = new SplashCache(mFolder.newFolder("splashes"), 1024);
+        cache.put("Akali", 0, bytes(10));
+        cache.remove("Akali", 0);
+        assertNull(cache.get("Akali", 0));
+    }
+}
@@ -0,0 +1,64 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+
+import java.util.Random;
+
+/**
+ * Minimal timing loop for the instrumentation benchmarks. Each case is warmed up, then run for a
+ * fixed wall-clock budget, and the result is logged as one "BENCH name ns/op" line so runs can be
+ * compared commit by commit with {@code adb logcat -s Benchmark}.
+ */
+class Benchmark {
+
+    private static final String TAG = "Benchmark";
+
+    private static final long WARMUP_NS = 500 * 1000 * 1000L;
+    private static final long MEASURE_NS = 2000 * 1000 * 1000L;
+
+    static final int SPLASH_WIDTH = 1215;
+    static final int SPLASH_HEIGHT = 717;
+
+    interface Body {
+        void run() throws Exception;
+    }
+
+    static long run(String name, Body body) throws Exception {
+        long warmupEnd = System.nanoTime() + WARMUP_NS;
+        while (System.nanoTime() < warmupEnd) {
+            body.run();
+        }
+
+        long ops = 0;
+        long start = System.nanoTime();
+        long end;
+        do {
+            body.run();
+            ops++;
+            end = System.nanoTime();
+        } while (end - start < MEASURE_NS);
+
+        long nsPerOp = (end - start) / ops;
+        Log.i(TAG, "BENCH " + name + " " + nsPerOp + " ns/op (" + ops + " ops)");
+        return nsPerOp;
+    }
+
+    /**
+     * Splash-sized bitmap with enough noise in it that PNG can't compress it to nothing.
+     */
+    static Bitmap createSplash() {
+        Random random = new Random(42);
+        int[] pixels = new int[SPLASH_WIDTH * SPLASH_HEIGHT];
+        for (int y = 0; y < SPLASH_HEIGHT; y++) {
+            for (int x = 0; x < SPLASH_WIDTH; x++) {
+                pixels[y * SPLASH_WIDTH + x] = Color.rgb(
+                        (x * 255 / SPLASH_WIDTH + random.nextInt(24)) & 0xff,
+                        (y * 255 / SPLASH_HEIGHT + random.nextInt(24)) & 0xff,
+                        (x + y + random.nextInt(24)) & 0xff);
+            }
+        }
+        return Bitmap.createBitmap(pixels, SPLASH_WIDTH, SPLASH_HEIGHT, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,103 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Debug;
+import android.test.AndroidTestCase;
+import android.text.format.Time;
+import android.util.Log;
+
+/**
+ * Checks that a steady-state interactive frame, everything onDraw and the tick handler do once
+ * the dial layer is built, allocates nothing, Canvas calls included. The pure Java side of the
+ * frame is also checked on the JVM by SteadyStateAllocationTest. Allocation counting isn't
+ * supported by every runtime, so the check is skipped where the counter doesn't move.
+ */
+public class FrameAllocationTest extends AndroidTestCase {
+
+    private static final int SIZE = 360;
+    private static final int FRAMES = 600;
+
+    private static final String TAG = "FrameAllocationTest";
+
+    private Bitmap mSurface;
+    private Canvas mCanvas;
+    private Rect mBounds;
+    private Time mTime;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mSurface = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mSurface);
+        mBounds = new Rect(0, 0, SIZE, SIZE);
+        mTime = new Time();
+        mTime.set(0, 0, 12, 22, 4, 2016);
+        mTime.normalize(false);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mSurface.recycle();
+        super.tearDown();
+    }
+
+    public void testInteractiveFrame_doesNotAllocate() throws Exception {
+        Resources resources = getContext().getResources();
+        Bitmap splash = Bitmap.createBitmap(1215, 717, Bitmap.Config.RGB_565);
+        splash.eraseColor(Color.DKGRAY);
+        BackgroundCache backgroundCache = new BackgroundCache(resources);
+        backgroundCache.setSource(splash);
+        InteractiveRenderer renderer = new InteractiveRenderer(resources, getContext().getAssets(), backgroundCache, 70);
+        renderer.setDial("Faker", true);
+        RenderStats stats = new RenderStats();
+        FrameScheduler scheduler = new FrameScheduler();
+
+        // The first frame builds the dial layer; only the frames after it are steady state.
+        runFrames(renderer, stats, scheduler, 1);
+
+        Debug.startAllocCounting();
+        try {
+            if (!countsAllocations()) {
+                Log.w(TAG, "Allocation counting isn't supported here, skipping");
+                return;
+            }
+            Debug.resetThreadAllocCount();
+            runFrames(renderer, stats, scheduler, FRAMES);
+            assertEquals("allocations in " + FRAMES + " frames", 0, Debug.getThreadAllocCount());
+        } finally {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    /**
+     * Returns whether the thread allocation counter sees an allocation made while counting.
+     */
+    private static boolean countsAllocations() {
+        Debug.resetThreadAllocCount();
+        Object[] probe = new Object[1];
+        probe[0] = new Object();
+        return probe[0] != null && Debug.getThreadAllocCount() > 0;
+    }
+
+    /**
+     * Mirrors onDraw and the tick handler, without {@code Time.setToNow} so the frames stay on one
+     * day and the dial isn't rebuilt.
+     */
+    private void runFrames(InteractiveRenderer renderer, RenderStats stats, FrameScheduler scheduler, int frames) {
+        long now = 1463918400000L;
+        for (int i = 0; i < frames; i++) {
+            stats.beginFrame();
+            mTime.second = i % 60;
+            renderer.draw(mCanvas, mBounds, mTime, mTime.second, scheduler.showsSecondHand());
+            stats.endFrame();
+
+            long delay = scheduler.getDelayMs(now);
+            stats.recordTick(now + delay, now + delay + 2, delay);
+            now += delay;
+        }
+    }
+}
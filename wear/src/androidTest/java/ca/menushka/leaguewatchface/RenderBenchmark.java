@@ -0,0 +1,182 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.test.AndroidTestCase;
+import android.text.format.Time;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Benchmarks for the watch face drawing and the background decode at the common round surface
+ * sizes. Run with {@code ./gradlew :wear:connectedAndroidTest}.
+ */
+public class RenderBenchmark extends AndroidTestCase {
+
+    private static final int[] SIZES = {320, 360, 400};
+
+    private static Paint createLinePaint(int color, float width) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStrokeWidth(width);
+        paint.setAntiAlias(true);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        return paint;
+    }
+
+    /**
+     * Rebuilds the dial layer from a new background, as after a /league_back with a new image.
+     */
+    public void testDialRebuild() throws Exception {
+        final Resources resources = getContext().getResources();
+        final Bitmap splash = Benchmark.createSplash();
+
+        final Paint overlayPaint = new Paint();
+        overlayPaint.setARGB(255 * 70 / 100, 0, 0, 0);
+        final Paint textPaint = new Paint();
+        textPaint.setTypeface(Typeface.createFromAsset(getContext().getAssets(), "beaufortforlol-bold.ttf"));
+        textPaint.setColor(resources.getColor(R.color.league_gold));
+        textPaint.setShadowLayer(4f, 0, 2, Color.BLACK);
+        final Paint tickPaint = createLinePaint(resources.getColor(R.color.league_white), 3);
+
+        final Time time = new Time();
+        time.setToNow();
+
+        for (final int size : SIZES) {
+            final Bitmap dial = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            final Canvas canvas = new Canvas(dial);
+            final Rect bounds = new Rect(0, 0, size, size);
+            final BackgroundCache backgroundCache = new BackgroundCache(resources);
+            final DialText dialText = new DialText();
+            final TickGeometry ticks = new TickGeometry();
+
+            Benchmark.run("dial_rebuild_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    backgroundCache.setSource(null);
+                    backgroundCache.setSource(splash);
+                    backgroundCache.setSize(size, size);
+                    dialText.invalidate();
+                    ticks.setSize(size, size);
+
+                    canvas.drawColor(Color.BLACK);
+                    canvas.drawBitmap(backgroundCache.get(), 0, 0, null);
+                    canvas.drawRect(bounds, overlayPaint);
+                    dialText.update(time, "Faker", bounds, textPaint);
+                    dialText.draw(canvas, textPaint);
+                    canvas.drawLines(ticks.major, tickPaint);
+                    canvas.drawLines(ticks.minor, tickPaint);
+                }
+            });
+            dial.recycle();
+        }
+    }
+
+    /**
+     * Blits a built dial layer, which is all a steady-state frame does with it.
+     */
+    public void testDialCached() throws Exception {
+        Resources resources = getContext().getResources();
+        BackgroundCache backgroundCache = new BackgroundCache(resources);
+        backgroundCache.setSource(Benchmark.createSplash());
+        InteractiveRenderer renderer = new InteractiveRenderer(resources, getContext().getAssets(), backgroundCache, 70);
+        renderer.setDial("Faker", true);
+        Time time = new Time();
+        time.setToNow();
+
+        for (int size : SIZES) {
+            final Bitmap dial = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            renderer.draw(new Canvas(dial), new Rect(0, 0, size, size), time, time.second, false);
+            Bitmap surface = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            final Canvas canvas = new Canvas(surface);
+
+            Benchmark.run("dial_cached_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    canvas.drawBitmap(dial, 0, 0, null);
+                }
+            });
+            dial.recycle();
+            surface.recycle();
+        }
+    }
+
+    /**
+     * Draws interactive frames the way onDraw does once the dial layer is built: a blit of the
+     * cached dial and the three hands.
+     */
+    public void testInteractiveFrame() throws Exception {
+        Resources resources = getContext().getResources();
+        BackgroundCache backgroundCache = new BackgroundCache(resources);
+        backgroundCache.setSource(Benchmark.createSplash());
+        final InteractiveRenderer renderer = new InteractiveRenderer(resources, getContext().getAssets(), backgroundCache, 70);
+        renderer.setDial("Faker", true);
+        final Time time = new Time();
+
+        for (int size : SIZES) {
+            Bitmap surface = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            final Canvas canvas = new Canvas(surface);
+            final Rect bounds = new Rect(0, 0, size, size);
+
+            Benchmark.run("frame_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    time.setToNow();
+                    renderer.draw(canvas, bounds, time, time.second, true);
+                }
+            });
+            surface.recycle();
+        }
+    }
+
+    public void testAmbientFrame() throws Exception {
+        final AmbientRenderer renderer = new AmbientRenderer(getContext().getResources());
+        final Time time = new Time();
+
+        for (int size : SIZES) {
+            Bitmap surface = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            final Canvas canvas = new Canvas(surface);
+            final Rect bounds = new Rect(0, 0, size, size);
+
+            Benchmark.run("ambient_frame_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    time.setToNow();
+                    renderer.draw(canvas, bounds, time);
+                }
+            });
+            surface.recycle();
+        }
+    }
+
+    public void testDecode() throws Exception {
+        Bitmap splash = Benchmark.createSplash();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        splash.compress(Bitmap.CompressFormat.PNG, 100, png);
+        splash.recycle();
+        final byte[] bytes = png.toByteArray();
+
+        Benchmark.run("decode_splash", new Benchmark.Body() {
+            @Override
+            public void run() throws Exception {
+                BitmapFactory.decodeStream(new ByteArrayInputStream(bytes)).recycle();
+            }
+        });
+
+        for (final int size : SIZES) {
+            Benchmark.run("decode_splash_sampled_" + size, new Benchmark.Body() {
+                @Override
+                public void run() throws Exception {
+                    BackgroundDecoder.decode(bytes, size, true, null).recycle();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.text.format.Time;
+
+/**
+ * Draws the face in ambient mode: a cached black dial with the hour ticks plus the hour and minute
+ * hands. Hand positions are only recomputed when the minute changes, so a frame outside of
+ * onTimeTick costs a blit and two lines.
+ */
+class AmbientRenderer {
+
+    /**
+     * Pixel offsets cycled through once a minute when burn-in protection is on, so that no pixel
+     * stays lit for long.
+     */
+    private static final int[] BURN_IN_OFFSETS_X = {0, 2, 4, 2, 0, -2, -4, -2};
+    private static final int[] BURN_IN_OFFSETS_Y = {0, -2, 0, 2, 4, 2, 0, -2};
+
+    private final TickGeometry mTicks = new TickGeometry();
+    private final HandGeometry mHands = new HandGeometry();
+
+    private final Paint mMajorTickPaint;
+    private final Paint mMinorTickPaint;
+    private final Paint mMinutesHandPaint;
+    private final Paint mHoursHandPaint;
+
+    private Bitmap mDialBitmap;
+    private Canvas mDialCanvas;
+    private boolean mDialDirty = true;
+
+    private boolean mBurnInProtection;
+
+    private int mHour = -1;
+    private int mMinute = -1;
+
+    AmbientRenderer(Resources resources) {
+        mMajorTickPaint = new Paint();
+        mMajorTickPaint.setColor(resources.getColor(R.color.league_white));
+        mMajorTickPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_tick));
+
+        mMinorTickPaint = new Paint();
+        mMinorTickPaint.setColor(resources.getColor(R.color.league_gray));
+        mMinorTickPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_tick));
+
+        mMinutesHandPaint = new Paint();
+        mMinutesHandPaint.setColor(resources.getColor(R.color.league_white));
+        mMinutesHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_minutes_stroke));
+        mMinutesHandPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        mHoursHandPaint = new Paint();
+        mHoursHandPaint.setColor(resources.getColor(R.color.league_white));
+        mHoursHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_stroke));
+        mHoursHandPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        setLowBitAmbient(false);
+    }
+
+    /**
+     * When true, all paints drop anti-aliasing since the display can't show the blended pixels.
+     */
+    void setLowBitAmbient(boolean lowBitAmbient) {
+        mMajorTickPaint.setAntiAlias(!lowBitAmbient);
+        mMinorTickPaint.setAntiAlias(!lowBitAmbient);
+        mMinutesHandPaint.setAntiAlias(!lowBitAmbient);
+        mHoursHandPaint.setAntiAlias(!lowBitAmbient);
+        mDialDirty = true;
+    }
+
+    /**
+     * When true, the whole face is shifted by a few pixels every minute.
+     */
+    void setBurnInProtection(boolean burnInProtection) {
+        mBurnInProtection = burnInProtection;
+    }
+
+    long getByteCount() {
+        return mDialBitmap == null ? 0 : mDialBitmap.getByteCount();
+    }
+
+    void draw(Canvas canvas, Rect bounds, Time time) {
+        int width = bounds.width();
+        int height = bounds.height();
+        if (mDialBitmap == null || mDialBitmap.getWidth() != width || mDialBitmap.getHeight() != height) {
+            if (mDialBitmap != null) {
+                mDialBitmap.recycle();
+            }
+            mDialBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mDialCanvas = new Canvas(mDialBitmap);
+            mTicks.setSize(width, height);
+            mHands.setSize(width, height);
+            mHour = -1;
+            mDialDirty = true;
+        }
+        if (mDialDirty) {
+            mDialCanvas.drawColor(Color.BLACK);
+            mDialCanvas.drawLines(mTicks.major, mMajorTickPaint);
+            mDialCanvas.drawLines(mTicks.minor, mMinorTickPaint);
+            mDialDirty = false;
+        }
+        if (time.hour != mHour || time.minute != mMinute) {
+            mHour = time.hour;
+            mMinute = time.minute;
+            mHands.update(mHour, mMinute, 0);
+        }
+
+        int dx = 0;
+        int dy = 0;
+        if (mBurnInProtection) {
+            int step = mMinute % BURN_IN_OFFSETS_X.length;
+            dx = BURN_IN_OFFSETS_X[step];
+            dy = BURN_IN_OFFSETS_Y[step];
+        }
+
+        canvas.drawColor(Color.BLACK);
+        canvas.drawBitmap(mDialBitmap, bounds.left + dx, bounds.top + dy, null);
+        canvas.save();
+        canvas.translate(bounds.left + dx, bounds.top + dy);
+        canvas.drawLine(mHands.centerX, mHands.centerY, mHands.minX, mHands.minY, mMinutesHandPaint);
+        canvas.drawLine(mHands.centerX, mHands.centerY, mHands.hrX, mHands.hrY, mHoursHandPaint);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,95 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Holds the background already scaled to the surface height and cropped to the surface width, so
+ * that a frame only has to blit it. Rebuilt when the source bitmap or the surface size changes.
+ */
+class BackgroundCache {
+
+    private final Resources mResources;
+    private final Paint mScalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private Bitmap mSource;
+    private Bitmap mFallback;
+    private Bitmap mScaled;
+    private int mWidth;
+    private int mHeight;
+
+    BackgroundCache(Resources resources) {
+        mResources = resources;
+    }
+
+    void setSource(Bitmap source) {
+        if (source == mSource) {
+            return;
+        }
+        mSource = source;
+        if (source != null) {
+            mFallback = null;
+        }
+        clear();
+    }
+
+    void setSize(int width, int height) {
+        if (width == mWidth && height == mHeight) {
+            return;
+        }
+        mWidth = width;
+        mHeight = height;
+        clear();
+    }
+
+    /**
+     * Returns the background for the current size, building it first if needed. Returns null until
+     * a size is known.
+     */
+    Bitmap get() {
+        if (mScaled == null && mWidth > 0 && mHeight > 0) {
+            mScaled = build();
+        }
+        return mScaled;
+    }
+
+    long getByteCount() {
+        long bytes = 0;
+        if (mScaled != null) {
+            bytes += mScaled.getByteCount();
+        }
+        if (mFallback != null) {
+            bytes += mFallback.getByteCount();
+        }
+        return bytes;
+    }
+
+    private Bitmap build() {
+        Bitmap source = mSource;
+        if (source == null) {
+            if (mFallback == null) {
+                mFallback = BitmapFactory.decodeResource(mResources, R.drawable.background);
+            }
+            source = mFallback;
+        }
+
+        int scaledWidth = (int) (source.getWidth() * 1f / source.getHeight() * mHeight);
+        int left = (mWidth - scaledWidth) / 2;
+
+        Bitmap scaled = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(scaled);
+        canvas.drawBitmap(source, null, new Rect(left, 0, left + scaledWidth, mHeight), mScalePaint);
+        return scaled;
+    }
+
+    private void clear() {
+        if (mScaled != null) {
+            mScaled.recycle();
+            mScaled = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes the champion splash no larger than the watch needs. The bounds are read first so the
+ * decoder can subsample down towards the surface height, and the memory of an old background can
+ * be handed in to be decoded into.
+ */
+class BackgroundDecoder {
+
+    private BackgroundDecoder() {
+    }
+
+    /**
+     * Returns the largest power of two sample size that still leaves the image at least
+     * {@code targetHeight} tall.
+     */
+    static int calculateSampleSize(int sourceHeight, int targetHeight) {
+        int sampleSize = 1;
+        if (targetHeight <= 0) {
+            return sampleSize;
+        }
+        while (sourceHeight / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[16 * 1024];
+        int len;
+        try {
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param targetHeight surface height, or 0 if it isn't known yet
+     * @param rgb565       decode without alpha at half the memory
+     * @param reusable     a bitmap nobody draws from any more, or null
+     */
+    static Bitmap decode(byte[] data, int targetHeight, boolean rgb565, Bitmap reusable) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = calculateSampleSize(options.outHeight, targetHeight);
+        Bitmap.Config config = rgb565 ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        int bytesPerPixel = rgb565 ? 2 : 4;
+        long neededBytes = (long) ((options.outWidth + sampleSize - 1) / sampleSize)
+                * ((options.outHeight + sampleSize - 1) / sampleSize) * bytesPerPixel;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = config;
+        options.inMutable = true;
+        if (reusable != null && !reusable.isRecycled() && reusable.isMutable()
+                && reusable.getAllocationByteCount() >= neededBytes) {
+            options.inBitmap = reusable;
+            try {
+                return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            } catch (IllegalArgumentException e) {
+                // The decoder couldn't reuse it after all, fall back to a fresh allocation.
+                options.inBitmap = null;
+            }
+        }
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+}
@@ -0,0 +1,278 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.android.gms.wearable.Asset;
+import com.google.android.gms.wearable.Wearable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches and decodes background assets on a single worker thread. Only the newest request is
+ * kept: a request that arrives while another is waiting replaces it, and one that is already
+ * being worked on is dropped as soon as it is noticed to be stale. Results are delivered on the
+ * main thread, tagged with the {@code time} of the data item they came from.
+ *
+ * <p>Images are looked up in the {@link BackgroundStore} by content hash first, so an image the
+ * watch already has is never fetched from the phone again, and each newly fetched background is
+ * stored so the next start can show it right away.
+ */
+class BackgroundLoader {
+
+    interface Callback {
+        /**
+         * @param darkened whether the phone already applied the dial overlay to the image
+         */
+        void onLoaded(Bitmap bitmap, String hash, boolean darkened, String text, long time, long decodeMillis);
+
+        /**
+         * The item had no asset and the image for its hash isn't stored either.
+         */
+        void onMissing(long time);
+
+        /**
+         * The item had an asset, but it couldn't be fetched from the phone.
+         */
+        void onFetchFailed(long time);
+    }
+
+    private static class Request {
+        final Asset asset;
+        final String hash;
+        final boolean darkened;
+        final String text;
+        final long time;
+
+        Request(Asset asset, String hash, boolean darkened, String text, long time) {
+            this.asset = asset;
+            this.hash = hash;
+            this.darkened = darkened;
+            this.text = text;
+            this.time = time;
+        }
+    }
+
+    private static final long CONNECT_TIMEOUT_MS = 30 * 1000;
+
+    private final WearableConnection mConnection;
+    private final BackgroundStore mStore;
+    private final boolean mRgb565;
+    private final Callback mCallback;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+
+    private final Object mLock = new Object();
+    private Request mPending;
+    private long mLatestTime;
+    private Bitmap mReusable;
+
+    private volatile int mTargetHeight;
+
+    BackgroundLoader(WearableConnection connection, BackgroundStore store, boolean rgb565, Callback callback) {
+        mConnection = connection;
+        mStore = store;
+        mRgb565 = rgb565;
+        mCallback = callback;
+    }
+
+    /**
+     * Sets the height backgrounds are decoded for. Set it before {@link #restore()}, which would
+     * otherwise decode at full size.
+     */
+    void setTargetHeight(int targetHeight) {
+        mTargetHeight = targetHeight;
+    }
+
+    /**
+     * Hands over a bitmap nothing draws from any more, so the next decode can reuse its memory.
+     */
+    void reuse(Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        synchronized (mLock) {
+            mReusable = bitmap;
+        }
+    }
+
+    /**
+     * Queues a background unless a request at least as new has already been made.
+     *
+     * @param asset the image, or null if the phone only sent the hash of one the watch has
+     */
+    void load(Asset asset, String hash, boolean darkened, String text, long time) {
+        boolean schedule;
+        synchronized (mLock) {
+            if (time <= mLatestTime) {
+                return;
+            }
+            mLatestTime = time;
+            schedule = mPending == null;
+            mPending = new Request(asset, hash, darkened, text, time);
+        }
+        if (schedule) {
+            mExecutor.execute(mWorker);
+        }
+    }
+
+    /**
+     * Loads the stored background off the main thread. It is delivered like any other result,
+     * so the engine drops it if something newer already arrived.
+     */
+    void restore() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                BackgroundStore.Entry entry = mStore.load();
+                if (entry == null) {
+                    return;
+                }
+                long start = SystemClock.elapsedRealtime();
+                Bitmap bitmap = BackgroundDecoder.decode(entry.image, mTargetHeight, mRgb565, null);
+                long decodeMillis = SystemClock.elapsedRealtime() - start;
+                if (bitmap != null) {
+                    deliver(bitmap, entry.hash, entry.darkened, entry.text, entry.time, decodeMillis);
+                }
+            }
+        });
+    }
+
+    /**
+     * Records a new item for the background already shown, without touching the image.
+     */
+    void saveInfo(final String hash, final boolean darkened, final String text, final long time) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mStore.saveInfo(hash, darkened, text, time);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    void shutdown() {
+        mExecutor.shutdownNow();
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private boolean isStale(long time) {
+        synchronized (mLock) {
+            return time != mLatestTime;
+        }
+    }
+
+    private final Runnable mWorker = new Runnable() {
+        @Override
+        public void run() {
+            Request request;
+            Bitmap reusable;
+            synchronized (mLock) {
+                request = mPending;
+                mPending = null;
+                reusable = mReusable;
+                mReusable = null;
+            }
+            if (request == null) {
+                return;
+            }
+            final long time = request.time;
+
+            boolean fetched = false;
+            byte[] data = mStore.loadImage(request.hash);
+            if (data == null && request.asset != null) {
+                data = fetch(request.asset);
+                fetched = data != null;
+            }
+            if (data == null) {
+                reuse(reusable);
+                final boolean missing = request.asset == null;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (missing) {
+                            mCallback.onMissing(time);
+                        } else {
+                            mCallback.onFetchFailed(time);
+                        }
+                    }
+                });
+                return;
+            }
+            if (fetched) {
+                // Stored even if a newer request came in meanwhile, which may well name the same
+                // image by hash only.
+                try {
+                    mStore.save(request.hash, request.darkened, data, request.text, time);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (isStale(time)) {
+                reuse(reusable);
+                return;
+            }
+
+            long start = SystemClock.elapsedRealtime();
+            Bitmap bitmap = BackgroundDecoder.decode(data, mTargetHeight, mRgb565, reusable);
+            long decodeMillis = SystemClock.elapsedRealtime() - start;
+            if (bitmap == null) {
+                return;
+            }
+            if (isStale(time)) {
+                reuse(bitmap);
+                return;
+            }
+
+            if (!fetched) {
+                try {
+                    mStore.saveInfo(request.hash, request.darkened, request.text, time);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            deliver(bitmap, request.hash, request.darkened, request.text, time, decodeMillis);
+        }
+    };
+
+    private void deliver(final Bitmap bitmap, final String hash, final boolean darkened, final String text,
+                         final long time, final long decodeMillis) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mCallback.onLoaded(bitmap, hash, darkened, text, time, decodeMillis);
+            }
+        });
+    }
+
+    private byte[] fetch(Asset asset) {
+        mConnection.acquire();
+        try {
+            if (!mConnection.awaitConnected(CONNECT_TIMEOUT_MS)) {
+                return null;
+            }
+            // convert asset into a file descriptor and block until it's ready
+            InputStream assetInputStream = Wearable.DataApi.getFdForAsset(
+                    mConnection.getClient(), asset).await().getInputStream();
+            if (assetInputStream == null) {
+                return null;
+            }
+            return BackgroundDecoder.readFully(assetInputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } catch (InterruptedException e) {
+            return null;
+        } finally {
+            mConnection.release();
+        }
+    }
+}
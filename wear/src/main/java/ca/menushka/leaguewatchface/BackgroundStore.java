@@ -0,0 +1,193 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Backgrounds on watch storage, exactly as the phone sent them already sized for the screen, keyed
+ * by the content hash the phone tags them with. Alongside them sits the info for the background
+ * currently shown, so a restarted face can show it without waiting for the phone, and a payload
+ * for an image the watch already has never needs its asset fetched. Files are written to a
+ * temporary name and renamed into place so a crash never leaves a half-written background.
+ */
+class BackgroundStore {
+
+    private static final String INFO_FILE = "background.info";
+    private static final String IMAGE_SUFFIX = ".img";
+    private static final String UNHASHED = "current";
+    private static final int MAX_IMAGES = 5;
+    private static final int INFO_VERSION = 2;
+
+    static class Entry {
+        final byte[] image;
+        final String hash;
+        final boolean darkened;
+        final String text;
+        final long time;
+
+        Entry(byte[] image, String hash, boolean darkened, String text, long time) {
+            this.image = image;
+            this.hash = hash;
+            this.darkened = darkened;
+            this.text = text;
+            this.time = time;
+        }
+    }
+
+    private final File mDir;
+
+    BackgroundStore(File dir) {
+        mDir = new File(dir, "backgrounds");
+    }
+
+    /**
+     * Returns the stored image for {@code hash}, or null if there isn't one.
+     */
+    synchronized byte[] loadImage(String hash) {
+        if (!isValidHash(hash)) {
+            return null;
+        }
+        return readImage(imageFile(hash));
+    }
+
+    private byte[] readImage(File image) {
+        if (!image.exists()) {
+            return null;
+        }
+        try {
+            byte[] data = BackgroundDecoder.readFully(new FileInputStream(image));
+            image.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    synchronized void save(String hash, boolean darkened, byte[] data, String text, long time) throws IOException {
+        if (!mDir.isDirectory() && !mDir.mkdirs()) {
+            throw new IOException("Couldn't create " + mDir);
+        }
+        File image = imageFile(hash);
+        File imageTmp = new File(mDir, image.getName() + ".tmp");
+        FileOutputStream imageOut = new FileOutputStream(imageTmp);
+        try {
+            imageOut.write(data);
+        } finally {
+            imageOut.close();
+        }
+        if (!imageTmp.renameTo(image)) {
+            throw new IOException("Couldn't move background into place");
+        }
+        saveInfo(hash, darkened, text, time);
+        evict();
+    }
+
+    /**
+     * Records which stored image is the current background.
+     */
+    synchronized void saveInfo(String hash, boolean darkened, String text, long time) throws IOException {
+        if (!mDir.isDirectory() && !mDir.mkdirs()) {
+            throw new IOException("Couldn't create " + mDir);
+        }
+        File info = new File(mDir, INFO_FILE);
+        File infoTmp = new File(mDir, INFO_FILE + ".tmp");
+        DataOutputStream infoOut = new DataOutputStream(new FileOutputStream(infoTmp));
+        try {
+            infoOut.writeInt(INFO_VERSION);
+            infoOut.writeLong(time);
+            infoOut.writeUTF(hash == null ? "" : hash);
+            infoOut.writeBoolean(darkened);
+            infoOut.writeUTF(text == null ? "" : text);
+        } finally {
+            infoOut.close();
+        }
+        if (!infoTmp.renameTo(info)) {
+            throw new IOException("Couldn't move background info into place");
+        }
+    }
+
+    /**
+     * Returns the current background, or null if there isn't a complete one.
+     */
+    synchronized Entry load() {
+        File info = new File(mDir, INFO_FILE);
+        if (!info.exists()) {
+            return null;
+        }
+        try {
+            DataInputStream infoIn = new DataInputStream(new FileInputStream(info));
+            long time;
+            String hash;
+            boolean darkened;
+            String text;
+            try {
+                if (infoIn.readInt() != INFO_VERSION) {
+                    return null;
+                }
+                time = infoIn.readLong();
+                hash = infoIn.readUTF();
+                darkened = infoIn.readBoolean();
+                text = infoIn.readUTF();
+            } finally {
+                infoIn.close();
+            }
+            byte[] image = readImage(imageFile(hash));
+            return image == null ? null : new Entry(image, hash, darkened, text, time);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * The hash names a file, so only accept what the phone actually sends: lowercase hex.
+     */
+    private static boolean isValidHash(String hash) {
+        return hash != null && hash.length() > 0 && hash.matches("[0-9a-f]+");
+    }
+
+    private File imageFile(String hash) {
+        return new File(mDir, (isValidHash(hash) ? hash : UNHASHED) + IMAGE_SUFFIX);
+    }
+
+    /**
+     * Deletes the least recently used images beyond {@link #MAX_IMAGES}.
+     */
+    private void evict() {
+        File[] images = mDir.listFiles();
+        if (images == null) {
+            return;
+        }
+        images = filterImages(images);
+        if (images.length <= MAX_IMAGES) {
+            return;
+        }
+        Arrays.sort(images, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = b.lastModified() - a.lastModified();
+                return diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            }
+        });
+        for (int i = MAX_IMAGES; i < images.length; i++) {
+            images[i].delete();
+        }
+    }
+
+    private static File[] filterImages(File[] files) {
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(IMAGE_SUFFIX)) {
+                files[count++] = file;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+}
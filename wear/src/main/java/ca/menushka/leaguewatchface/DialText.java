@@ -0,0 +1,92 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.text.format.Time;
+
+/**
+ * Measured username, date and day strings with their draw positions. The layout only changes on a
+ * new day, a new username or a new surface size, so it is kept until one of those happens.
+ */
+class DialText {
+
+    private static final String[] WEEK_DAYS = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+    private static final String[] MONTHS = {"January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December"};
+
+    private static final float USERNAME_SIZE = 24;
+    private static final float DATE_SIZE = 20;
+    private static final float DAY_SIZE = 22;
+
+    private final Rect mTextBounds = new Rect();
+
+    String username = "";
+    float usernameX;
+    float usernameY;
+
+    String date = "";
+    float dateX;
+    float dateY;
+
+    String day = "";
+    float dayX;
+    float dayY;
+
+    private boolean mValid;
+    private int mYearDay = -1;
+    private int mYear = -1;
+    private int mWidth;
+    private int mHeight;
+
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Re-measures the strings if the day, username or bounds changed since the last layout.
+     */
+    void update(Time time, String savedText, Rect bounds, Paint paint) {
+        String usernameText = savedText == null ? "" : savedText;
+        if (mValid && time.yearDay == mYearDay && time.year == mYear
+                && bounds.width() == mWidth && bounds.height() == mHeight
+                && usernameText.equals(username)) {
+            return;
+        }
+
+        username = usernameText;
+        day = WEEK_DAYS[time.weekDay];
+        date = MONTHS[time.month] + " " + time.monthDay + ", " + time.year;
+
+        paint.setTextSize(USERNAME_SIZE);
+        paint.getTextBounds(username, 0, username.length(), mTextBounds);
+        usernameX = bounds.centerX() - mTextBounds.width() / 2;
+        usernameY = bounds.centerY() - bounds.height() / 4 + mTextBounds.height() / 2;
+
+        paint.setTextSize(DATE_SIZE);
+        paint.getTextBounds(date, 0, date.length(), mTextBounds);
+        dateX = bounds.centerX() - mTextBounds.width() / 2;
+        dateY = bounds.centerY() + bounds.height() / 4;
+
+        paint.setTextSize(DAY_SIZE);
+        paint.getTextBounds(day, 0, day.length(), mTextBounds);
+        dayX = bounds.centerX() - mTextBounds.width() / 2;
+        dayY = bounds.centerY() + bounds.height() / 4 + mTextBounds.height();
+
+        mYearDay = time.yearDay;
+        mYear = time.year;
+        mWidth = bounds.width();
+        mHeight = bounds.height();
+        mValid = true;
+    }
+
+    void draw(Canvas canvas, Paint paint) {
+        paint.setTextSize(USERNAME_SIZE);
+        canvas.drawText(username, usernameX, usernameY, paint);
+
+        paint.setTextSize(DATE_SIZE);
+        canvas.drawText(date, dateX, dateY, paint);
+
+        paint.setTextSize(DAY_SIZE);
+        canvas.drawText(day, dayX, dayY, paint);
+    }
+}
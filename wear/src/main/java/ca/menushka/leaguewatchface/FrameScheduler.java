@@ -0,0 +1,66 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * Decides how long the engine waits before drawing the next interactive frame. Delays are always
+ * measured to the next frame boundary of the wall clock, so the hands never drift off the second.
+ */
+class FrameScheduler {
+
+    /** Redraw once a second, the second hand ticks. */
+    static final int MODE_TICK = 0;
+    /** Redraw several times a second, the second hand sweeps. */
+    static final int MODE_SWEEP = 1;
+    /** Redraw once a minute with no second hand. */
+    static final int MODE_BATTERY_SAVER = 2;
+
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+
+    private int mMode = MODE_TICK;
+    private long mSweepFrameMs = SECOND_MS / 15;
+
+    int getMode() {
+        return mMode;
+    }
+
+    void setMode(int mode) {
+        mMode = mode;
+    }
+
+    void setSweepFrameRate(int framesPerSecond) {
+        if (framesPerSecond < 1 || framesPerSecond > 60) {
+            throw new IllegalArgumentException("Frame rate must be between 1 and 60");
+        }
+        mSweepFrameMs = SECOND_MS / framesPerSecond;
+    }
+
+    boolean showsSecondHand() {
+        return mMode != MODE_BATTERY_SAVER;
+    }
+
+    boolean sweeps() {
+        return mMode == MODE_SWEEP;
+    }
+
+    /**
+     * Returns the delay from {@code nowMs} to the next frame. Sweep frames are laid out from the
+     * start of each second, so a frame rate that doesn't divide a second evenly still lands on
+     * the second boundary; a leftover sliver shorter than half a frame is folded into the last
+     * frame.
+     */
+    long getDelayMs(long nowMs) {
+        switch (mMode) {
+            case MODE_SWEEP:
+                long intoSecond = nowMs % SECOND_MS;
+                long next = (intoSecond / mSweepFrameMs + 1) * mSweepFrameMs;
+                if (next > SECOND_MS || SECOND_MS - next < mSweepFrameMs / 2) {
+                    next = SECOND_MS;
+                }
+                return next - intoSecond;
+            case MODE_BATTERY_SAVER:
+                return MINUTE_MS - (nowMs % MINUTE_MS);
+            default:
+                return SECOND_MS - (nowMs % SECOND_MS);
+        }
+    }
+}
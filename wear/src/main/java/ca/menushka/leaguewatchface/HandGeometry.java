@@ -0,0 +1,43 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * End points of the three hands, recomputed in place every frame so that drawing them doesn't
+ * allocate.
+ */
+class HandGeometry {
+
+    float centerX;
+    float centerY;
+
+    float secX;
+    float secY;
+    float minX;
+    float minY;
+    float hrX;
+    float hrY;
+
+    void setSize(int width, int height) {
+        centerX = width / 2f;
+        centerY = height / 2f;
+    }
+
+    /**
+     * @param second seconds into the current minute, fractional when the second hand sweeps
+     */
+    void update(int hour, int minute, float second) {
+        float secRot = second / 30f * (float) Math.PI;
+        float minRot = minute / 30f * (float) Math.PI;
+        float hrRot = ((hour + (minute / 60f)) / 6f) * (float) Math.PI;
+
+        float secLength = centerX - 20;
+        float minLength = centerX - 40;
+        float hrLength = centerX - 80;
+
+        secX = centerX + (float) Math.sin(secRot) * secLength;
+        secY = centerY + (float) -Math.cos(secRot) * secLength;
+        minX = centerX + (float) Math.sin(minRot) * minLength;
+        minY = centerY + (float) -Math.cos(minRot) * minLength;
+        hrX = centerX + (float) Math.sin(hrRot) * hrLength;
+        hrY = centerY + (float) -Math.cos(hrRot) * hrLength;
+    }
+}
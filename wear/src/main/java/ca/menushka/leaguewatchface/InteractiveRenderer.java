@@ -0,0 +1,160 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.text.format.Time;
+
+/**
+ * Draws the face in interactive mode. The background, overlay, text and ticks are drawn into a
+ * cached dial layer that is only rebuilt when one of them changes or the day rolls over, so a
+ * steady-state frame is a blit and three lines and doesn't allocate.
+ */
+class InteractiveRenderer {
+
+    private final BackgroundCache mBackgroundCache;
+    private final HandGeometry mHands = new HandGeometry();
+    private final DialText mDialText = new DialText();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final Rect mDialBounds = new Rect();
+
+    private final Paint mSecondsHandPaint;
+    private final Paint mMinutesHandPaint;
+    private final Paint mHoursHandPaint;
+    private final Paint mOverlayPaint;
+    private final Paint mTextPaint;
+    private final Paint mMajorTickPaint;
+    private final Paint mMinorTickPaint;
+
+    private Bitmap mDialBitmap;
+    private Canvas mDialCanvas;
+    private boolean mDialDirty = true;
+    private int mDialYearDay = -1;
+    private int mDialYear = -1;
+
+    private String mText;
+    private boolean mOverlay = true;
+
+    /**
+     * @param transparency opacity of the black overlay over the background, in percent
+     */
+    InteractiveRenderer(Resources resources, AssetManager assets, BackgroundCache backgroundCache, int transparency) {
+        mBackgroundCache = backgroundCache;
+
+        mSecondsHandPaint = new Paint();
+        mSecondsHandPaint.setColor(resources.getColor(R.color.league_red));
+        mSecondsHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_seconds_stroke));
+        mSecondsHandPaint.setAntiAlias(true);
+        mSecondsHandPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        mMinutesHandPaint = new Paint();
+        mMinutesHandPaint.setColor(resources.getColor(R.color.league_white));
+        mMinutesHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_minutes_stroke));
+        mMinutesHandPaint.setAntiAlias(true);
+        mMinutesHandPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        mHoursHandPaint = new Paint();
+        mHoursHandPaint.setColor(resources.getColor(R.color.league_white));
+        mHoursHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_stroke));
+        mHoursHandPaint.setAntiAlias(true);
+        mHoursHandPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        mOverlayPaint = new Paint();
+        mOverlayPaint.setARGB(255 * transparency / 100, 0, 0, 0);
+
+        mTextPaint = new Paint();
+        mTextPaint.setTypeface(Typeface.createFromAsset(assets, "beaufortforlol-bold.ttf"));
+        mTextPaint.setColor(resources.getColor(R.color.league_gold));
+        mTextPaint.setShadowLayer(4f, 0, 2, Color.BLACK);
+
+        mMajorTickPaint = new Paint();
+        mMajorTickPaint.setColor(resources.getColor(R.color.league_white));
+        mMajorTickPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_tick));
+        mMajorTickPaint.setAntiAlias(true);
+
+        mMinorTickPaint = new Paint();
+        mMinorTickPaint.setColor(resources.getColor(R.color.league_gray));
+        mMinorTickPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_tick));
+        mMinorTickPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Sets the username shown on the dial and whether the background still needs the overlay, and
+     * rebuilds the dial layer on the next frame. Call this whenever the background changes too.
+     */
+    void setDial(String text, boolean overlay) {
+        mText = text;
+        mOverlay = overlay;
+        mDialText.invalidate();
+        mDialDirty = true;
+    }
+
+    long getByteCount() {
+        return mDialBitmap == null ? 0 : mDialBitmap.getByteCount();
+    }
+
+    void draw(Canvas canvas, Rect bounds, Time time, float second, boolean showSecondHand) {
+        int width = bounds.width();
+        int height = bounds.height();
+        if (time.yearDay != mDialYearDay || time.year != mDialYear) {
+            mDialDirty = true;
+        }
+        if (mDialBitmap == null || mDialBitmap.getWidth() != width || mDialBitmap.getHeight() != height) {
+            if (mDialBitmap != null) {
+                mDialBitmap.recycle();
+            }
+            mDialBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mDialCanvas = new Canvas(mDialBitmap);
+            mDialDirty = true;
+        }
+        if (mDialDirty) {
+            mDialBounds.set(0, 0, width, height);
+            drawDial(mDialCanvas, mDialBounds, time);
+            mDialYearDay = time.yearDay;
+            mDialYear = time.year;
+            mDialDirty = false;
+        }
+        canvas.drawBitmap(mDialBitmap, bounds.left, bounds.top, null);
+
+        // Find the center. Ignore the window insets so that, on round watches with a
+        // "chin", the watch face is centered on the entire screen, not just the usable
+        // portion.
+        mHands.setSize(width, height);
+        mHands.update(time.hour, time.minute, second);
+
+        if (showSecondHand) {
+            canvas.drawLine(mHands.centerX, mHands.centerY, mHands.secX, mHands.secY, mSecondsHandPaint);
+        }
+        canvas.drawLine(mHands.centerX, mHands.centerY, mHands.minX, mHands.minY, mMinutesHandPaint);
+        canvas.drawLine(mHands.centerX, mHands.centerY, mHands.hrX, mHands.hrY, mHoursHandPaint);
+    }
+
+    /**
+     * Draws everything that doesn't move from second to second into the dial layer.
+     */
+    private void drawDial(Canvas canvas, Rect bounds, Time time) {
+        // Draw the background.
+        canvas.drawColor(Color.BLACK);
+        mBackgroundCache.setSize(bounds.width(), bounds.height());
+        canvas.drawBitmap(mBackgroundCache.get(), bounds.left, bounds.top, null);
+
+        //Overlay
+        if (mOverlay) {
+            canvas.drawRect(bounds, mOverlayPaint);
+        }
+
+        //Text
+        mDialText.update(time, mText, bounds, mTextPaint);
+        mDialText.draw(canvas, mTextPaint);
+
+        // Draw watch ticks
+        mTicks.setSize(bounds.width(), bounds.height());
+        canvas.drawLines(mTicks.major, mMajorTickPaint);
+        canvas.drawLines(mTicks.minor, mMinorTickPaint);
+    }
+}
@@ -20,58 +20,73 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.Typeface;
-import android.graphics.drawable.Drawable;
-import android.os.AsyncTask;
+import android.os.BatteryManager;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.preference.PreferenceManager;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
 import android.text.format.Time;
-import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.SurfaceHolder;
 
-import com.google.android.gms.common.ConnectionResult;
-import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.wearable.Asset;
 import com.google.android.gms.wearable.DataApi;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
 import com.google.android.gms.wearable.DataItem;
-import com.google.android.gms.wearable.DataMap;
 import com.google.android.gms.wearable.DataMapItem;
 import com.google.android.gms.wearable.PutDataMapRequest;
 import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.ref.WeakReference;
-import java.net.URL;
 import java.util.TimeZone;
-import java.util.Timer;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Analog watch face with a ticking second hand. In ambient mode, the second hand isn't shown. On
- * devices with low-bit ambient mode, the hands are drawn without anti-aliasing in ambient mode.
+ * Analog watch face with a ticking or, if chosen on the phone, sweeping second hand. In ambient
+ * mode, the second hand isn't shown. On devices with low-bit ambient mode, the hands are drawn
+ * without anti-aliasing in ambient mode.
  */
 public class LeagueWatchFace extends CanvasWatchFaceService {
     /**
-     * Update rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
+     * /league_back key and watch preference for the second hand chosen on the phone: 0 ticks once
+     * a second, anything else sweeps at that many frames a second, at the cost of battery.
      */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = 1000;
+    private static final String SWEEP_FPS_KEY = "sweep_fps";
+
+    /**
+     * Battery percentage at or below which the face drops to minute updates.
+     */
+    private static final int BATTERY_LOW_PERCENT = 15;
+
+    /**
+     * Taps within this window count towards the debug stats gesture.
+     */
+    private static final long STATS_TAP_WINDOW_MS = 1000;
+
+    /**
+     * Number of quick taps that logs the render stats in debug builds.
+     */
+    private static final int STATS_TAP_COUNT = 3;
+
+    private static final String TAG = "LeagueWatchFace";
+
+    /**
+     * Decode the background without alpha. It sits under a 70% black overlay, so the lost color
+     * depth isn't visible and it halves the memory.
+     */
+    private static final boolean DECODE_RGB_565 = true;
 
     /**
      * Handler message id for updating the time periodically in interactive mode.
@@ -103,7 +118,7 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
         }
     }
 
-    private class Engine extends CanvasWatchFaceService.Engine implements GoogleApiClient.ConnectionCallbacks, DataApi.DataListener {
+    private class Engine extends CanvasWatchFaceService.Engine implements WearableConnection.Listener, DataApi.DataListener {
         final Handler mUpdateTimeHandler = new EngineHandler(this);
         boolean mRegisteredTimeZoneReceiver = false;
         Paint mBackgroundPaint;
@@ -114,23 +129,56 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             public void onReceive(Context context, Intent intent) {
                 mTime.clear(intent.getStringExtra("time-zone"));
                 mTime.setToNow();
+                invalidateDial();
             }
         };
+        final BroadcastReceiver mBatteryReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                setBatteryLow(Intent.ACTION_BATTERY_LOW.equals(intent.getAction()));
+            }
+        };
+        final FrameScheduler mFrameScheduler = new FrameScheduler();
+        int mSweepFps;
+        boolean mBatteryLow;
         int mTapCount;
+        long mLastTapTime;
 
-        String[] weekDays = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
-        String[] monthes = {"January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December"};
+        final RenderStats mStats = new RenderStats();
+        long mNextTickMillis;
+        long mTickDelayMillis;
 
-        Paint mHandPaint;
-        Paint mSecondsHandPaint;
-        Paint mMinutesHandPaint;
-        Paint mHoursHandPaint;
+        InteractiveRenderer mInteractiveRenderer;
+        AmbientRenderer mAmbientRenderer;
 
-        GoogleApiClient mGoogleApiClient;
+        WearableConnection mConnection;
         String savedText;
-        Handler updateTimer;
+        final RefreshScheduler mRefreshScheduler = new RefreshScheduler();
+        final Handler mRefreshHandler = new Handler();
+        final Runnable mRefresh = new Runnable() {
+            @Override
+            public void run() {
+                refresh();
+            }
+        };
 
         Bitmap savedBitmap;
+        BackgroundCache mBackgroundCache;
+        BackgroundLoader mBackgroundLoader;
+
+        /**
+         * {@code time} of the newest /league_back item whose text and background are shown.
+         */
+        long mTextTime;
+        long mBackgroundTime;
+        String mBackgroundHash;
+        /**
+         * Whether the background shown already has the overlay applied by the phone.
+         */
+        boolean mBackgroundDarkened;
+        int mSurfaceWidth;
+        int mSurfaceHeight;
+
         int transparency = 70;
 
         /**
@@ -139,16 +187,18 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
          */
         boolean mLowBitAmbient;
 
+        /**
+         * Whether the display requires burn-in protection in ambient mode. When true, the ambient
+         * face is shifted by a few pixels every minute.
+         */
+        boolean mBurnInProtection;
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
 
-            mGoogleApiClient = new GoogleApiClient.Builder(getApplicationContext())
-                    .addApi(Wearable.API)
-                    .addConnectionCallbacks(this)
-                    .build();
-
-            mGoogleApiClient.connect();
+            mConnection = new WearableConnection(getApplicationContext(), this, this);
+            mConnection.acquire();
 
             setWatchFaceStyle(new WatchFaceStyle.Builder(LeagueWatchFace.this)
                     .setCardPeekMode(WatchFaceStyle.PEEK_MODE_SHORT)
@@ -162,63 +212,97 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             mBackgroundPaint = new Paint();
             mBackgroundPaint.setColor(resources.getColor(R.color.background));
 
-            mHandPaint = new Paint();
-            mHandPaint.setColor(resources.getColor(R.color.analog_hands));
-            mHandPaint.setStrokeWidth(resources.getDimension(R.dimen.analog_hand_stroke));
-            mHandPaint.setAntiAlias(true);
-            mHandPaint.setStrokeCap(Paint.Cap.ROUND);
-
-            mSecondsHandPaint = new Paint();
-            mSecondsHandPaint.setColor(resources.getColor(R.color.league_red));
-            mSecondsHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_seconds_stroke));
-            mSecondsHandPaint.setAntiAlias(true);
-            mSecondsHandPaint.setStrokeCap(Paint.Cap.ROUND);
-
-            mMinutesHandPaint = new Paint();
-            mMinutesHandPaint.setColor(resources.getColor(R.color.league_white));
-            mMinutesHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_minutes_stroke));
-            mMinutesHandPaint.setAntiAlias(true);
-            mMinutesHandPaint.setStrokeCap(Paint.Cap.ROUND);
-
-            mHoursHandPaint = new Paint();
-            mHoursHandPaint.setColor(resources.getColor(R.color.league_white));
-            mHoursHandPaint.setStrokeWidth(resources.getDimension(R.dimen.league_hours_stroke));
-            mHoursHandPaint.setAntiAlias(true);
-            mHoursHandPaint.setStrokeCap(Paint.Cap.ROUND);
-
             mTime = new Time();
 
-            updateTimer = new Handler();
-            updateTimer.post(new Runnable() {
+            mSweepFps = PreferenceManager.getDefaultSharedPreferences(LeagueWatchFace.this).getInt(SWEEP_FPS_KEY, 0);
+            updateFrameMode();
+
+            mBackgroundCache = new BackgroundCache(resources);
+            mInteractiveRenderer = new InteractiveRenderer(resources, getAssets(), mBackgroundCache, transparency);
+            mAmbientRenderer = new AmbientRenderer(resources);
+            BackgroundStore store = new BackgroundStore(getFilesDir());
+            mBackgroundLoader = new BackgroundLoader(mConnection, store, DECODE_RGB_565, new BackgroundLoader.Callback() {
                 @Override
-                public void run() {
-                    if (mGoogleApiClient.isConnected() || mGoogleApiClient.isConnecting()) {
-                        mGoogleApiClient.disconnect();
+                public void onLoaded(Bitmap bitmap, String hash, boolean darkened, String text, long time, long decodeMillis) {
+                    mStats.decodeMillis.add(decodeMillis);
+                    if (time <= mBackgroundTime) {
+                        mBackgroundLoader.reuse(bitmap);
+                        return;
                     }
+                    mBackgroundTime = time;
+                    mBackgroundHash = hash;
+                    mRefreshScheduler.onImageLoaded();
+                    mBackgroundDarkened = darkened;
+                    if (time > mTextTime) {
+                        mTextTime = time;
+                        savedText = text;
+                    }
+                    // The old background isn't drawn from once the cache has the new one.
+                    mBackgroundLoader.reuse(savedBitmap);
+                    savedBitmap = bitmap;
+                    mBackgroundCache.setSource(bitmap);
+                    invalidateDial();
+                    if (!isInAmbientMode()) {
+                        invalidate();
+                    }
+                }
 
-                    mGoogleApiClient.connect();
+                @Override
+                public void onMissing(long time) {
+                    // The phone thought we had this image, but it was evicted; ask for it again.
+                    mBackgroundHash = null;
+                    mRefreshScheduler.onImageMissing();
+                    refreshNow();
+                }
 
-                    updateTimer.postDelayed(this, 1000 * 60 * 10);
+                @Override
+                public void onFetchFailed(long time) {
+                    // The phone sends it again with the next reply, since we still report the old hash.
+                    mRefreshScheduler.onFetchFailed();
+                    scheduleRefresh();
                 }
             });
+            // Show the last background from storage until the phone answers. The surface isn't
+            // sized yet, so decode it for the display.
+            mBackgroundLoader.setTargetHeight(resources.getDisplayMetrics().heightPixels);
+            mBackgroundLoader.restore();
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mRefreshHandler.removeCallbacks(mRefresh);
+            mBackgroundLoader.shutdown();
+            mConnection.release();
             super.onDestroy();
         }
 
+        @Override
+        public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+            super.onSurfaceChanged(holder, format, width, height);
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+            mBackgroundLoader.setTargetHeight(height);
+            mBackgroundCache.setSize(width, height);
+            invalidateDial();
+        }
+
         @Override
         public void onPropertiesChanged(Bundle properties) {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
+            mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            mAmbientRenderer.setLowBitAmbient(mLowBitAmbient);
+            mAmbientRenderer.setBurnInProtection(mBurnInProtection);
         }
 
         @Override
         public void onTimeTick() {
             super.onTimeTick();
-            invalidate();
+            // The update timer already redraws on the minute while it's running.
+            if (!shouldTimerBeRunning()) {
+                invalidate();
+            }
         }
 
         @Override
@@ -226,15 +310,15 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             super.onAmbientModeChanged(inAmbientMode);
             if (mAmbient != inAmbientMode) {
                 mAmbient = inAmbientMode;
-                if (mLowBitAmbient) {
-                    mHandPaint.setAntiAlias(!inAmbientMode);
-                }
                 invalidate();
             }
 
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
             updateTimer();
+
+            mRefreshScheduler.setAmbient(inAmbientMode);
+            scheduleRefresh();
         }
 
         /**
@@ -253,12 +337,15 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
                     break;
                 case TAP_TYPE_TAP:
                     // The user has completed the tap gesture
-
-                    if (mGoogleApiClient.isConnected() || mGoogleApiClient.isConnecting()) {
-                        mGoogleApiClient.disconnect();
+                    if (BuildConfig.DEBUG) {
+                        mTapCount = eventTime - mLastTapTime < STATS_TAP_WINDOW_MS ? mTapCount + 1 : 1;
+                        mLastTapTime = eventTime;
+                        if (mTapCount == STATS_TAP_COUNT) {
+                            logStats();
+                        }
                     }
 
-                    mGoogleApiClient.connect();
+                    refreshNow();
 
                     break;
             }
@@ -267,116 +354,29 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
+            mStats.beginFrame();
             mTime.setToNow();
 
-            // Draw the background.
             if (isInAmbientMode()) {
-                canvas.drawColor(Color.BLACK);
-            } else {
-//                canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), mBackgroundPaint);
-                Bitmap bitmap;
-                if (savedBitmap == null) {
-                    Drawable d = getResources().getDrawable(R.drawable.background);
-                    bitmap = BitmapFactory.decodeResource(getResources(), R.drawable.background);
-                } else {
-                    bitmap = savedBitmap;
-                }
-
-                //Background
-                Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, (int) (bitmap.getWidth() * 1f / bitmap.getHeight() * bounds.height()), bounds.height(), false);
-                canvas.drawBitmap(scaledBitmap, bounds.centerX() - (int) (bitmap.getWidth() * 1f / bitmap.getHeight() * bounds.height()) / 2, 0, null);
-
-                //Overlay
-                Paint semi_black = new Paint();
-                semi_black.setARGB(255 * transparency / 100, 0, 0, 0);
-
-
-                canvas.drawRect(bounds, semi_black);
-
-                //Text
-                Typeface bold = Typeface.createFromAsset(getAssets(), "beaufortforlol-bold.ttf");
-
-                Paint textPaint = new Paint();
-                textPaint.setTypeface(bold);
-                textPaint.setColor(getResources().getColor(R.color.league_gold));
-                textPaint.setShadowLayer(4f, 0, 2, Color.BLACK);
-
-                String usernameText = savedText == null ? "" : savedText;
-                String dayText = weekDays[mTime.weekDay];
-                String dateText = String.format("%s %d, %d", monthes[mTime.month], mTime.monthDay, mTime.year);
-                String connectingText = "Connecting...";
-
-                Rect textBounds = new Rect();
-                textPaint.setTextSize(24);
-                textPaint.getTextBounds(usernameText, 0, usernameText.length(), textBounds);
-                canvas.drawText(usernameText, bounds.centerX() - textBounds.width() / 2, bounds.centerY() - bounds.height() / 4 + textBounds.height() / 2, textPaint);
-
-//                if (mGoogleApiClient.isConnecting()) {
-//                    int tempY = bounds.centerY() - bounds.height() / 4 + textBounds.height() / 2;
-//                    textPaint.setTextSize(20);
-//                    textPaint.getTextBounds(connectingText, 0, connectingText.length(), textBounds);
-//                    canvas.drawText(connectingText, bounds.centerX() - textBounds.width() / 2, tempY + textBounds.height(), textPaint);
-//                }
-
-                textPaint.setTextSize(20);
-                textPaint.getTextBounds(dateText, 0, dateText.length(), textBounds);
-                canvas.drawText(dateText, bounds.centerX() - textBounds.width() / 2, bounds.centerY() + bounds.height() / 4, textPaint);
-
-                textPaint.setTextSize(22);
-                textPaint.getTextBounds(dayText, 0, dayText.length(), textBounds);
-                canvas.drawText(dayText, bounds.centerX() - textBounds.width() / 2, bounds.centerY() + bounds.height() / 4 + textBounds.height(), textPaint);
-            }
-
-            // Find the center. Ignore the window insets so that, on round watches with a
-            // "chin", the watch face is centered on the entire screen, not just the usable
-            // portion.
-
-
-            float centerX = bounds.width() / 2f;
-            float centerY = bounds.height() / 2f;
-
-            float secRot = mTime.second / 30f * (float) Math.PI;
-            int minutes = mTime.minute;
-            float minRot = minutes / 30f * (float) Math.PI;
-            float hrRot = ((mTime.hour + (minutes / 60f)) / 6f) * (float) Math.PI;
-
-            float secLength = centerX - 20;
-            float minLength = centerX - 40;
-            float hrLength = centerX - 80;
-
-            // Draw watch ticks
-            for (int rot = 0; rot < 360; rot += 30) {
-                Paint tick_color = new Paint();
-                tick_color.setStrokeWidth(getResources().getDimension(R.dimen.league_hours_tick));
-                tick_color.setAntiAlias(true);
-                if (rot % 90 == 0) {
-                    tick_color.setColor(getResources().getColor(R.color.league_white));
-                    canvas.drawLine(centerX + (int) (Math.cos(rot / 180f * Math.PI) * 140),
-                                    centerY + (int) (Math.sin(rot / 180f * Math.PI) * 140),
-                                    centerX + (int) (Math.cos(rot / 180f * Math.PI) * 150),
-                                    centerY + (int) (Math.sin(rot / 180f * Math.PI) * 150), tick_color);
-                } else {
-                    tick_color.setColor(getResources().getColor(R.color.league_gray));
-                    canvas.drawLine(centerX + (int) (Math.cos(rot / 180f * Math.PI) * 160),
-                                    centerY + (int) (Math.sin(rot / 180f * Math.PI) * 160),
-                                    centerX + (int) (Math.cos(rot / 180f * Math.PI) * 170),
-                                    centerY + (int) (Math.sin(rot / 180f * Math.PI) * 170), tick_color);
-                }
+                mAmbientRenderer.draw(canvas, bounds, mTime);
+                mStats.endFrame();
+                return;
             }
 
-            if (!mAmbient) {
-                float secX = (float) Math.sin(secRot) * secLength;
-                float secY = (float) -Math.cos(secRot) * secLength;
-                canvas.drawLine(centerX, centerY, centerX + secX, centerY + secY, mSecondsHandPaint);
+            float second = mTime.second;
+            if (mFrameScheduler.sweeps()) {
+                second += (System.currentTimeMillis() % 1000) / 1000f;
             }
+            mInteractiveRenderer.draw(canvas, bounds, mTime, second, mFrameScheduler.showsSecondHand());
+            mStats.endFrame();
+        }
 
-            float minX = (float) Math.sin(minRot) * minLength;
-            float minY = (float) -Math.cos(minRot) * minLength;
-            canvas.drawLine(centerX, centerY, centerX + minX, centerY + minY, mMinutesHandPaint);
-
-            float hrX = (float) Math.sin(hrRot) * hrLength;
-            float hrY = (float) -Math.cos(hrRot) * hrLength;
-            canvas.drawLine(centerX, centerY, centerX + hrX, centerY + hrY, mHoursHandPaint);
+        /**
+         * Marks the static dial layer (background, overlay, text and ticks) for redrawing on the
+         * next frame.
+         */
+        private void invalidateDial() {
+            mInteractiveRenderer.setDial(savedText, !mBackgroundDarkened || savedBitmap == null);
         }
 
         @Override
@@ -396,6 +396,9 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
             updateTimer();
+
+            mRefreshScheduler.setVisible(visible);
+            scheduleRefresh();
         }
 
         private void registerReceiver() {
@@ -405,6 +408,18 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
             LeagueWatchFace.this.registerReceiver(mTimeZoneReceiver, filter);
+
+            IntentFilter batteryFilter = new IntentFilter(Intent.ACTION_BATTERY_LOW);
+            batteryFilter.addAction(Intent.ACTION_BATTERY_OKAY);
+            LeagueWatchFace.this.registerReceiver(mBatteryReceiver, batteryFilter);
+
+            // Low/okay are only sent on a change, so check the current level too.
+            Intent battery = LeagueWatchFace.this.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+            if (battery != null) {
+                int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+                int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+                setBatteryLow(level >= 0 && scale > 0 && level * 100 / scale <= BATTERY_LOW_PERCENT);
+            }
         }
 
         private void unregisterReceiver() {
@@ -413,6 +428,52 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
             }
             mRegisteredTimeZoneReceiver = false;
             LeagueWatchFace.this.unregisterReceiver(mTimeZoneReceiver);
+            LeagueWatchFace.this.unregisterReceiver(mBatteryReceiver);
+        }
+
+        /**
+         * Drops to minute updates without a second hand while the battery is low.
+         */
+        private void setBatteryLow(boolean low) {
+            mBatteryLow = low;
+            updateFrameMode();
+        }
+
+        /**
+         * Switches to the second hand chosen on the phone and keeps it for the next start.
+         */
+        private void setSweepFps(int fps) {
+            if (fps < 1 || fps > 60) {
+                fps = 0;
+            }
+            if (fps == mSweepFps) {
+                return;
+            }
+            mSweepFps = fps;
+            SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(LeagueWatchFace.this).edit();
+            editor.putInt(SWEEP_FPS_KEY, fps);
+            editor.apply();
+            updateFrameMode();
+        }
+
+        /**
+         * Picks the frame mode from the battery state and the chosen second hand.
+         */
+        private void updateFrameMode() {
+            int mode;
+            if (mBatteryLow) {
+                mode = FrameScheduler.MODE_BATTERY_SAVER;
+            } else if (mSweepFps > 0) {
+                mode = FrameScheduler.MODE_SWEEP;
+                mFrameScheduler.setSweepFrameRate(mSweepFps);
+            } else {
+                mode = FrameScheduler.MODE_TICK;
+            }
+            if (mFrameScheduler.getMode() != mode) {
+                mFrameScheduler.setMode(mode);
+                updateTimer();
+                invalidate();
+            }
         }
 
         /**
@@ -421,6 +482,7 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
          */
         private void updateTimer() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mNextTickMillis = 0;
             if (shouldTimerBeRunning()) {
                 mUpdateTimeHandler.sendEmptyMessage(MSG_UPDATE_TIME);
             }
@@ -439,27 +501,98 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
          */
         private void handleUpdateTimeMessage() {
             invalidate();
+            long timeMs = System.currentTimeMillis();
+            if (mNextTickMillis != 0) {
+                mStats.recordTick(mNextTickMillis, timeMs, mTickDelayMillis);
+            }
+            mNextTickMillis = 0;
             if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
-                mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
+                mTickDelayMillis = mFrameScheduler.getDelayMs(timeMs);
+                mNextTickMillis = timeMs + mTickDelayMillis;
+                mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, mTickDelayMillis);
             }
         }
 
-        @Override
-        public void onConnected(Bundle bundle) {
-            Wearable.DataApi.addListener(mGoogleApiClient, this);
+        /**
+         * Bytes held by the bitmaps the face draws from.
+         */
+        private long getBitmapBytes() {
+            long bytes = mBackgroundCache.getByteCount() + mInteractiveRenderer.getByteCount()
+                    + mAmbientRenderer.getByteCount();
+            if (savedBitmap != null) {
+                bytes += savedBitmap.getByteCount();
+            }
+            return bytes;
+        }
 
-            PutDataMapRequest putDataMapReq = PutDataMapRequest.create("/league");
-            putDataMapReq.getDataMap().putLong("time", System.currentTimeMillis());
-            PutDataRequest request = putDataMapReq.asPutDataRequest();
-            Wearable.DataApi.putDataItem(mGoogleApiClient, request);
+        private void logStats() {
+            StringWriter stats = new StringWriter();
+            mStats.dump(new PrintWriter(stats), getBitmapBytes());
+            Log.d(TAG, stats.toString());
         }
 
+        /**
+         * Render stats are included in {@code adb shell dumpsys activity service LeagueWatchFace}.
+         */
         @Override
-        public void onConnectionSuspended(int i) {
+        protected void dump(String prefix, FileDescriptor fd, PrintWriter out, String[] args) {
+            super.dump(prefix, fd, out, args);
+            out.print(prefix);
+            out.println("Render stats:");
+            mStats.dump(out, getBitmapBytes());
+        }
+
+        @Override
+        public void onConnected() {
+            scheduleRefresh();
+        }
+
+        /**
+         * Posts {@link #mRefresh} for when the {@link #mRefreshScheduler} wants the next request,
+         * or cancels it if no request should be made.
+         */
+        private void scheduleRefresh() {
+            mRefreshHandler.removeCallbacks(mRefresh);
+            long delayMs = mRefreshScheduler.getDelayMs(System.currentTimeMillis());
+            if (delayMs >= 0) {
+                mRefreshHandler.postDelayed(mRefresh, delayMs);
+            }
+        }
+
+        private void refresh() {
+            // While disconnected, the connection reschedules once it's back.
+            if (requestUpdate()) {
+                scheduleRefresh();
+            }
+        }
+
+        /**
+         * Requests right away on a user action, as long as it stays under the hard cap.
+         */
+        private void refreshNow() {
+            if (mRefreshScheduler.canRequest(System.currentTimeMillis())) {
+                refresh();
+            }
+        }
 
+        /**
+         * Asks the phone for a fresh /league_back item. Returns false without asking while
+         * disconnected.
+         */
+        private boolean requestUpdate() {
+            if (!mConnection.isConnected()) {
+                return false;
+            }
+            mRefreshScheduler.onRequested(System.currentTimeMillis());
+            PutDataMapRequest putDataMapReq = PutDataMapRequest.create("/league");
+            putDataMapReq.getDataMap().putLong("time", System.currentTimeMillis());
+            putDataMapReq.getDataMap().putString("hash", mBackgroundHash == null ? "" : mBackgroundHash);
+            // The phone crops and scales the background to this before sending it.
+            putDataMapReq.getDataMap().putInt("width", mSurfaceWidth);
+            putDataMapReq.getDataMap().putInt("height", mSurfaceHeight);
+            PutDataRequest request = putDataMapReq.asPutDataRequest();
+            Wearable.DataApi.putDataItem(mConnection.getClient(), request);
+            return true;
         }
 
         @Override
@@ -472,62 +605,29 @@ public class LeagueWatchFace extends CanvasWatchFaceService {
                         DataMapItem dataMapItem = DataMapItem.fromDataItem(item);
                         Asset profileAsset = dataMapItem.getDataMap().getAsset("image");
 
+                        long time = dataMapItem.getDataMap().getLong("time");
+                        if (time <= mTextTime) {
+                            continue;
+                        }
+                        mRefreshScheduler.onResponse();
+                        mRefreshScheduler.setInGame(dataMapItem.getDataMap().getBoolean("in_game", false));
+                        setSweepFps(dataMapItem.getDataMap().getInt(SWEEP_FPS_KEY, 0));
+                        scheduleRefresh();
+                        mTextTime = time;
                         savedText = dataMapItem.getDataMap().getString("text");
-                        new ImageDecode(mGoogleApiClient, profileAsset, new ImageCallback() {
-                            @Override
-                            public void onResult(Bitmap bitmap) {
-                                savedBitmap = bitmap;
-                            }
-                        }).execute();
+                        invalidateDial();
+                        String hash = dataMapItem.getDataMap().getString("hash", "");
+                        if (hash.length() > 0 && hash.equals(mBackgroundHash)) {
+                            // Same image as the one on screen, only the text is new.
+                            mBackgroundTime = time;
+                            mBackgroundLoader.saveInfo(hash, mBackgroundDarkened, savedText, time);
+                        } else {
+                            boolean darkened = dataMapItem.getDataMap().getBoolean("darkened", false);
+                            mBackgroundLoader.load(profileAsset, hash, darkened, savedText, time);
+                        }
                     }
                 }
             }
         }
     }
 }
-
-class ImageDecode extends AsyncTask<Void, Void, Void> {
-
-    GoogleApiClient mGoogleApiClient;
-    Asset asset;
-    ImageCallback callback;
-    Bitmap bitmap;
-
-    ImageDecode(GoogleApiClient mGoogleApiClient, Asset asset, ImageCallback callback) {
-        this.mGoogleApiClient = mGoogleApiClient;
-        this.asset = asset;
-        this.callback = callback;
-    }
-
-    @Override
-    protected Void doInBackground(Void... params) {
-        if (asset == null) {
-            throw new IllegalArgumentException("Asse t must be non-null");
-        }
-        ConnectionResult result = mGoogleApiClient.blockingConnect();
-
-        if (!result.isSuccess()) {
-            return null;
-        }
-        // convert asset into a file descriptor and block until it's ready
-        InputStream assetInputStream = Wearable.DataApi.getFdForAsset(
-                mGoogleApiClient, asset).await().getInputStream();
-        mGoogleApiClient.disconnect();
-
-        if (assetInputStream == null) {
-            return null;
-        }
-
-        bitmap = BitmapFactory.decodeStream(assetInputStream);
-        return null;
-    }
-
-    @Override
-    protected void onPostExecute(Void aVoid) {
-        callback.onResult(bitmap);
-    }
-}
-
-interface ImageCallback {
-    void onResult(Bitmap bitmap);
-}
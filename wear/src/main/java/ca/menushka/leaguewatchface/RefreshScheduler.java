@@ -0,0 +1,149 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * Decides when the engine next asks the phone for fresh data. Nothing is refreshed while the face
+ * is invisible, a live game is polled much faster than an idle summoner, ambient mode stretches
+ * both intervals, and a request that gets no answer backs off exponentially. An image that can't
+ * be fetched from the phone is asked for again sooner, also backing off. Apart from one follow-up
+ * when the phone's reply names an image the watch no longer has, requests are never closer
+ * together than {@link #MIN_INTERVAL_MS}.
+ */
+class RefreshScheduler {
+
+    private static final long MINUTE_MS = 60 * 1000;
+
+    /** Hard cap: never more than one request a minute, taps included. */
+    static final long MIN_INTERVAL_MS = MINUTE_MS;
+    static final long MAX_INTERVAL_MS = 60 * MINUTE_MS;
+
+    static final long IN_GAME_INTERVAL_MS = 2 * MINUTE_MS;
+    static final long IN_GAME_AMBIENT_INTERVAL_MS = 5 * MINUTE_MS;
+    static final long IDLE_INTERVAL_MS = 15 * MINUTE_MS;
+    static final long IDLE_AMBIENT_INTERVAL_MS = 30 * MINUTE_MS;
+
+    private boolean mVisible;
+    private boolean mAmbient;
+    private boolean mInGame;
+
+    private boolean mRequested;
+    private boolean mAwaitingResponse;
+    private long mLastRequestMs;
+    private int mFailures;
+    private boolean mImageMissing;
+    private int mFetchFailures;
+
+    void setVisible(boolean visible) {
+        mVisible = visible;
+    }
+
+    void setAmbient(boolean ambient) {
+        mAmbient = ambient;
+    }
+
+    void setInGame(boolean inGame) {
+        mInGame = inGame;
+    }
+
+    boolean isInGame() {
+        return mInGame;
+    }
+
+    int getFailures() {
+        return mFailures;
+    }
+
+    /**
+     * Records that a request went out. If the previous one was never answered, that counts as a
+     * failure and the next interval doubles.
+     */
+    void onRequested(long nowMs) {
+        if (mAwaitingResponse) {
+            mFailures++;
+        }
+        mRequested = true;
+        mAwaitingResponse = true;
+        mLastRequestMs = nowMs;
+        mImageMissing = false;
+    }
+
+    void onResponse() {
+        mAwaitingResponse = false;
+        mFailures = 0;
+    }
+
+    /**
+     * Records that the last reply only named an image by hash and the watch doesn't have it. The
+     * next request may go out straight away, since the reply arrived within the hard cap.
+     */
+    void onImageMissing() {
+        mImageMissing = true;
+    }
+
+    /**
+     * Records that the image sent with a reply couldn't be fetched. Until one arrives, the next
+     * request goes out after {@link #MIN_INTERVAL_MS}, doubling with each failure, unless the
+     * normal interval is sooner.
+     */
+    void onFetchFailed() {
+        mFetchFailures++;
+    }
+
+    void onImageLoaded() {
+        mFetchFailures = 0;
+    }
+
+    int getFetchFailures() {
+        return mFetchFailures;
+    }
+
+    /**
+     * Returns whether a request at {@code nowMs} stays under the hard cap.
+     */
+    boolean canRequest(long nowMs) {
+        return !mRequested || mImageMissing || nowMs - mLastRequestMs >= MIN_INTERVAL_MS;
+    }
+
+    /**
+     * Returns the interval between requests for the current state, with backoff applied.
+     */
+    long getIntervalMs() {
+        long interval;
+        if (mInGame) {
+            interval = mAmbient ? IN_GAME_AMBIENT_INTERVAL_MS : IN_GAME_INTERVAL_MS;
+        } else {
+            interval = mAmbient ? IDLE_AMBIENT_INTERVAL_MS : IDLE_INTERVAL_MS;
+        }
+        for (int i = 0; i < mFailures && interval < MAX_INTERVAL_MS; i++) {
+            interval *= 2;
+        }
+        return Math.max(MIN_INTERVAL_MS, Math.min(interval, MAX_INTERVAL_MS));
+    }
+
+    /**
+     * Returns the interval before asking again for an image that couldn't be fetched.
+     */
+    long getRetryIntervalMs() {
+        long interval = MIN_INTERVAL_MS;
+        for (int i = 1; i < mFetchFailures && interval < MAX_INTERVAL_MS; i++) {
+            interval *= 2;
+        }
+        return Math.min(interval, MAX_INTERVAL_MS);
+    }
+
+    /**
+     * Returns the delay from {@code nowMs} to the next request, or -1 if none should be scheduled.
+     */
+    long getDelayMs(long nowMs) {
+        if (!mVisible) {
+            return -1;
+        }
+        if (!mRequested || mImageMissing) {
+            return 0;
+        }
+        long interval = getIntervalMs();
+        if (mFetchFailures > 0) {
+            interval = Math.min(interval, getRetryIntervalMs());
+        }
+        return Math.max(0, mLastRequestMs + interval - nowMs);
+    }
+}
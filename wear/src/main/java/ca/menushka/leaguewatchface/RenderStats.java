@@ -0,0 +1,100 @@
+package ca.menushka.leaguewatchface;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Frame, tick and decode timings kept in fixed-size ring buffers so that recording a sample never
+ * allocates. Percentiles are only worked out when the stats are dumped.
+ */
+class RenderStats {
+
+    private static final int CAPACITY = 256;
+
+    /**
+     * The last {@link #CAPACITY} samples of one measurement plus its all-time max and count.
+     */
+    static class Series {
+        private final long[] mSamples = new long[CAPACITY];
+        private int mNext;
+        private int mSize;
+        private long mCount;
+        private long mMax;
+
+        void add(long value) {
+            mSamples[mNext] = value;
+            mNext = (mNext + 1) % CAPACITY;
+            if (mSize < CAPACITY) {
+                mSize++;
+            }
+            mCount++;
+            if (value > mMax) {
+                mMax = value;
+            }
+        }
+
+        long percentile(int percent, long[] scratch) {
+            if (mSize == 0) {
+                return 0;
+            }
+            System.arraycopy(mSamples, 0, scratch, 0, mSize);
+            Arrays.sort(scratch, 0, mSize);
+            return scratch[(mSize - 1) * percent / 100];
+        }
+
+        void dump(PrintWriter out, String name, String unit, long[] scratch) {
+            out.println(name + ": n=" + mCount
+                    + " p50=" + percentile(50, scratch) + unit
+                    + " p95=" + percentile(95, scratch) + unit
+                    + " max=" + mMax + unit);
+        }
+
+        void reset() {
+            mNext = 0;
+            mSize = 0;
+            mCount = 0;
+            mMax = 0;
+        }
+    }
+
+    final Series frameMicros = new Series();
+    final Series tickLatencyMillis = new Series();
+    final Series decodeMillis = new Series();
+
+    /** Ticks that fired a whole frame period or more after they were due. */
+    long missedFrames;
+
+    private final long[] mScratch = new long[CAPACITY];
+    private long mFrameStartNanos;
+
+    void beginFrame() {
+        mFrameStartNanos = System.nanoTime();
+    }
+
+    void endFrame() {
+        frameMicros.add((System.nanoTime() - mFrameStartNanos) / 1000);
+    }
+
+    void recordTick(long scheduledMillis, long actualMillis, long periodMillis) {
+        long latency = actualMillis - scheduledMillis;
+        tickLatencyMillis.add(latency);
+        if (latency >= periodMillis) {
+            missedFrames += latency / periodMillis;
+        }
+    }
+
+    void dump(PrintWriter out, long bitmapBytes) {
+        frameMicros.dump(out, "draw", "us", mScratch);
+        tickLatencyMillis.dump(out, "tick latency", "ms", mScratch);
+        decodeMillis.dump(out, "decode", "ms", mScratch);
+        out.println("missed frames: " + missedFrames);
+        out.println("bitmap memory: " + bitmapBytes / 1024 + "KB");
+    }
+
+    void reset() {
+        frameMicros.reset();
+        tickLatencyMillis.reset();
+        decodeMillis.reset();
+        missedFrames = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package ca.menushka.leaguewatchface;
+
+/**
+ * Precomputed line end points for the twelve hour ticks, laid out for Canvas.drawLines. Only
+ * recomputed when the surface size changes.
+ */
+class TickGeometry {
+
+    /** Ticks at 12, 3, 6 and 9. */
+    final float[] major = new float[4 * 4];
+    /** The remaining eight hour ticks. */
+    final float[] minor = new float[8 * 4];
+
+    private int mWidth = -1;
+    private int mHeight = -1;
+
+    void setSize(int width, int height) {
+        if (width == mWidth && height == mHeight) {
+            return;
+        }
+        mWidth = width;
+        mHeight = height;
+
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+
+        int majorIndex = 0;
+        int minorIndex = 0;
+        for (int rot = 0; rot < 360; rot += 30) {
+            double angle = rot / 180f * Math.PI;
+            if (rot % 90 == 0) {
+                majorIndex = putLine(major, majorIndex, centerX, centerY, angle, 140, 150);
+            } else {
+                minorIndex = putLine(minor, minorIndex, centerX, centerY, angle, 160, 170);
+            }
+        }
+    }
+
+    private static int putLine(float[] lines, int index, float centerX, float centerY, double angle,
+                               int inner, int outer) {
+        lines[index++] = centerX + (int) (Math.cos(angle) * inner);
+        lines[index++] = centerY + (int) (Math.sin(angle) * inner);
+        lines[index++] = centerX + (int) (Math.cos(angle) * outer);
+        lines[index++] = centerY + (int) (Math.sin(angle) * outer);
+        return index;
+    }
+}
@@ -0,0 +1,151 @@
+package ca.menushka.leaguewatchface;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.Wearable;
+
+/**
+ * One long-lived Wearable connection shared by everything in the engine. Users {@link #acquire()}
+ * and {@link #release()} it, the connection stays up while anyone holds it, and a dropped or
+ * failed connection is retried with exponential backoff. The data listener is registered exactly
+ * once per connection.
+ */
+class WearableConnection implements GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener {
+
+    interface Listener {
+        void onConnected();
+    }
+
+    private static final long INITIAL_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    private final GoogleApiClient mGoogleApiClient;
+    private final DataApi.DataListener mDataListener;
+    private final Listener mListener;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private int mUsers;
+    private boolean mConnected;
+    private boolean mListenerRegistered;
+    private long mBackoffMs = INITIAL_BACKOFF_MS;
+
+    WearableConnection(Context context, DataApi.DataListener dataListener, Listener listener) {
+        mGoogleApiClient = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API)
+                .addConnectionCallbacks(this)
+                .addOnConnectionFailedListener(this)
+                .build();
+        mDataListener = dataListener;
+        mListener = listener;
+    }
+
+    GoogleApiClient getClient() {
+        return mGoogleApiClient;
+    }
+
+    synchronized boolean isConnected() {
+        return mConnected;
+    }
+
+    synchronized void acquire() {
+        mUsers++;
+        if (mUsers == 1) {
+            connect();
+        }
+    }
+
+    synchronized void release() {
+        if (mUsers == 0) {
+            throw new IllegalStateException("Connection released more times than acquired");
+        }
+        mUsers--;
+        if (mUsers == 0) {
+            mHandler.removeCallbacks(mReconnect);
+            if (mListenerRegistered) {
+                Wearable.DataApi.removeListener(mGoogleApiClient, mDataListener);
+                mListenerRegistered = false;
+            }
+            mConnected = false;
+            mGoogleApiClient.disconnect();
+        }
+    }
+
+    /**
+     * Blocks until connected or {@code timeoutMs} runs out. Must not be called on the main thread.
+     */
+    synchronized boolean awaitConnected(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!mConnected && mUsers > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return mConnected;
+    }
+
+    private void connect() {
+        if (!mGoogleApiClient.isConnected() && !mGoogleApiClient.isConnecting()) {
+            mGoogleApiClient.connect();
+        }
+    }
+
+    @Override
+    public void onConnected(Bundle bundle) {
+        synchronized (this) {
+            if (mUsers == 0) {
+                return;
+            }
+            mConnected = true;
+            mBackoffMs = INITIAL_BACKOFF_MS;
+            if (!mListenerRegistered) {
+                Wearable.DataApi.addListener(mGoogleApiClient, mDataListener);
+                mListenerRegistered = true;
+            }
+            notifyAll();
+        }
+        mListener.onConnected();
+    }
+
+    @Override
+    public synchronized void onConnectionSuspended(int cause) {
+        mConnected = false;
+        mListenerRegistered = false;
+        scheduleReconnect();
+    }
+
+    @Override
+    public synchronized void onConnectionFailed(ConnectionResult result) {
+        mConnected = false;
+        mListenerRegistered = false;
+        scheduleReconnect();
+        notifyAll();
+    }
+
+    private void scheduleReconnect() {
+        if (mUsers == 0) {
+            return;
+        }
+        mHandler.removeCallbacks(mReconnect);
+        mHandler.postDelayed(mReconnect, mBackoffMs);
+        mBackoffMs = Math.min(mBackoffMs * 2, MAX_BACKOFF_MS);
+    }
+
+    private final Runnable mReconnect = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (WearableConnection.this) {
+                if (mUsers > 0) {
+                    connect();
+                }
+            }
+        }
+    };
+}
@@ -0,0 +1,22 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BackgroundDecoderTest {
+
+    @Test
+    public void sampleSize_staysAtLeastTargetHeight() throws Exception {
+        // The 717 px tall splash halves for a 320 px watch, but halving it for a 400 px watch
+        // would leave it 358 px tall, shorter than the screen, so it decodes at full size.
+        assertEquals(2, BackgroundDecoder.calculateSampleSize(717, 320));
+        assertEquals(1, BackgroundDecoder.calculateSampleSize(717, 400));
+        assertEquals(4, BackgroundDecoder.calculateSampleSize(1434, 320));
+    }
+
+    @Test
+    public void sampleSize_unknownTargetDecodesFullSize() throws Exception {
+        assertEquals(1, BackgroundDecoder.calculateSampleSize(717, 0));
+    }
+}
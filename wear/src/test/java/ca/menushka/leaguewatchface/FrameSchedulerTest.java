@@ -0,0 +1,48 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameSchedulerTest {
+
+    @Test
+    public void tick_alignsToNextSecond() throws Exception {
+        FrameScheduler scheduler = new FrameScheduler();
+        assertEquals(1000, scheduler.getDelayMs(5000));
+        assertEquals(1, scheduler.getDelayMs(5999));
+        assertEquals(750, scheduler.getDelayMs(7250));
+    }
+
+    @Test
+    public void sweep_landsOnSecondBoundary() throws Exception {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.setMode(FrameScheduler.MODE_SWEEP);
+        scheduler.setSweepFrameRate(15);
+
+        // 15 fps is 66 ms frames, the last frame of the second is stretched to stay aligned.
+        assertEquals(66, scheduler.getDelayMs(3000));
+        assertEquals(76, scheduler.getDelayMs(3924));
+        assertEquals(10, scheduler.getDelayMs(3990));
+
+        long now = 3000;
+        for (int i = 0; i < 15; i++) {
+            now += scheduler.getDelayMs(now);
+        }
+        assertEquals(4000, now);
+    }
+
+    @Test
+    public void batterySaver_alignsToNextMinute() throws Exception {
+        FrameScheduler scheduler = new FrameScheduler();
+        scheduler.setMode(FrameScheduler.MODE_BATTERY_SAVER);
+        assertEquals(60000, scheduler.getDelayMs(120000));
+        assertEquals(30000, scheduler.getDelayMs(150000));
+        assertFalse(scheduler.showsSecondHand());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sweep_rejectsBadFrameRate() throws Exception {
+        new FrameScheduler().setSweepFrameRate(0);
+    }
+}
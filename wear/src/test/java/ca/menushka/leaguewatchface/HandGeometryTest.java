@@ -0,0 +1,23 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HandGeometryTest {
+
+    @Test
+    public void hands_pointAtTwelveAndThree() throws Exception {
+        HandGeometry hands = new HandGeometry();
+        hands.setSize(320, 320);
+
+        hands.update(0, 0, 0);
+        assertEquals(160f, hands.secX, 0.01f);
+        assertEquals(20f, hands.secY, 0.01f);
+
+        hands.update(3, 15, 15);
+        assertEquals(300f, hands.secX, 0.01f);
+        assertEquals(160f, hands.secY, 0.01f);
+        assertEquals(280f, hands.minX, 0.01f);
+    }
+}
@@ -0,0 +1,113 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RefreshSchedulerTest {
+
+    private static final long MINUTE_MS = 60 * 1000;
+
+    private static RefreshScheduler visibleScheduler() {
+        RefreshScheduler scheduler = new RefreshScheduler();
+        scheduler.setVisible(true);
+        return scheduler;
+    }
+
+    @Test
+    public void invisible_neverRefreshes() throws Exception {
+        RefreshScheduler scheduler = new RefreshScheduler();
+        assertEquals(-1, scheduler.getDelayMs(0));
+        scheduler.setVisible(true);
+        assertEquals(0, scheduler.getDelayMs(0));
+    }
+
+    @Test
+    public void inGame_pollsFasterThanIdle() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        scheduler.onRequested(0);
+        scheduler.onResponse();
+        assertEquals(RefreshScheduler.IDLE_INTERVAL_MS, scheduler.getDelayMs(0));
+
+        scheduler.setInGame(true);
+        assertEquals(RefreshScheduler.IN_GAME_INTERVAL_MS, scheduler.getDelayMs(0));
+        assertEquals(RefreshScheduler.IN_GAME_INTERVAL_MS - MINUTE_MS, scheduler.getDelayMs(MINUTE_MS));
+
+        scheduler.setAmbient(true);
+        assertEquals(RefreshScheduler.IN_GAME_AMBIENT_INTERVAL_MS, scheduler.getDelayMs(0));
+    }
+
+    @Test
+    public void unansweredRequests_backOffUpToCap() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        scheduler.setInGame(true);
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            scheduler.onRequested(now);
+            now += scheduler.getDelayMs(now);
+        }
+        assertEquals(9, scheduler.getFailures());
+        assertEquals(RefreshScheduler.MAX_INTERVAL_MS, scheduler.getIntervalMs());
+
+        scheduler.onResponse();
+        assertEquals(0, scheduler.getFailures());
+        assertEquals(RefreshScheduler.IN_GAME_INTERVAL_MS, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void canRequest_enforcesMinimumInterval() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        assertTrue(scheduler.canRequest(0));
+        scheduler.onRequested(0);
+        assertFalse(scheduler.canRequest(RefreshScheduler.MIN_INTERVAL_MS - 1));
+        assertTrue(scheduler.canRequest(RefreshScheduler.MIN_INTERVAL_MS));
+    }
+
+    @Test
+    public void missingImage_allowsOneFollowUp() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        scheduler.onRequested(0);
+        scheduler.onResponse();
+        // The reply only carried a hash the watch doesn't have.
+        scheduler.onImageMissing();
+        assertTrue(scheduler.canRequest(5000));
+        assertEquals(0, scheduler.getDelayMs(5000));
+
+        scheduler.onRequested(5000);
+        assertEquals(0, scheduler.getFailures());
+        assertFalse(scheduler.canRequest(10000));
+        assertTrue(scheduler.canRequest(5000 + RefreshScheduler.MIN_INTERVAL_MS));
+    }
+
+    @Test
+    public void failedFetch_retriesSoonerWithBackoff() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            scheduler.onRequested(now);
+            scheduler.onResponse();
+            // The reply's image couldn't be fetched from the phone.
+            scheduler.onFetchFailed();
+            assertEquals(RefreshScheduler.MIN_INTERVAL_MS << i, scheduler.getDelayMs(now));
+            now += scheduler.getDelayMs(now);
+        }
+        assertEquals(3, scheduler.getFetchFailures());
+
+        scheduler.onRequested(now);
+        scheduler.onResponse();
+        scheduler.onImageLoaded();
+        assertEquals(RefreshScheduler.IDLE_INTERVAL_MS, scheduler.getDelayMs(now));
+    }
+
+    @Test
+    public void failedFetch_neverWaitsLongerThanNormal() throws Exception {
+        RefreshScheduler scheduler = visibleScheduler();
+        scheduler.setInGame(true);
+        scheduler.onRequested(0);
+        scheduler.onResponse();
+        for (int i = 0; i < 5; i++) {
+            scheduler.onFetchFailed();
+        }
+        assertEquals(RefreshScheduler.IN_GAME_INTERVAL_MS, scheduler.getDelayMs(0));
+    }
+}
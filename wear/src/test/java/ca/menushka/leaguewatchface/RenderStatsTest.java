@@ -0,0 +1,29 @@
+package ca.menushka.leaguewatchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RenderStatsTest {
+
+    @Test
+    public void series_keepsOnlyLatestSamples() throws Exception {
+        RenderStats.Series series = new RenderStats.Series();
+        long[] scratch = new long[256];
+        for (int i = 1; i <= 1000; i++) {
+            series.add(i);
+        }
+        // Only 745..1000 are still in the buffer.
+        assertEquals(872, series.percentile(50, scratch));
+        assertEquals(1000, series.percentile(100, scratch));
+    }
+
+    @Test
+    public void recordTick_countsMissedFrames() throws Exception {
+        RenderStats stats = new RenderStats();
+        stats.recordTick(1000, 1010, 1000);
+        assertEquals(0, stats.missedFrames);
+        stats.recordTick(2000, 4500, 1000);
+        assertEquals(2, stats.missedFrames);
+    }
+}
@@ -0,0 +1,82 @@
+package ca.menushka.leaguewatchface;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.text.format.Time;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Checks that the per-frame work outside of Canvas, hands, ticks, the unchanged dial text, the
+ * render stats and the frame scheduler, allocates nothing once it has run once. The Canvas side is
+ * covered on device by the instrumentation FrameAllocationTest.
+ */
+public class SteadyStateAllocationTest {
+
+    private static final int FRAMES = 20000;
+
+    private com.sun.management.ThreadMXBean mBean;
+
+    private final HandGeometry mHands = new HandGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final DialText mDialText = new DialText();
+    private final RenderStats mStats = new RenderStats();
+    private final FrameScheduler mTickScheduler = new FrameScheduler();
+    private final FrameScheduler mSweepScheduler = new FrameScheduler();
+    private final Time mTime = new Time();
+    private final Rect mBounds = new Rect();
+    private final Paint mPaint = new Paint();
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        mBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(mBean.isThreadAllocatedMemorySupported());
+        mBean.setThreadAllocatedMemoryEnabled(true);
+
+        mSweepScheduler.setMode(FrameScheduler.MODE_SWEEP);
+        mSweepScheduler.setSweepFrameRate(15);
+        mTime.year = 2016;
+        mTime.month = 4;
+        mTime.monthDay = 22;
+        mTime.yearDay = 142;
+        mTime.weekDay = 0;
+    }
+
+    @Test
+    public void steadyStateFrames_doNotAllocate() throws Exception {
+        // Warm up so that class loading, the first layout and compilation aren't counted.
+        runFrames(FRAMES);
+
+        long threadId = Thread.currentThread().getId();
+        long before = mBean.getThreadAllocatedBytes(threadId);
+        runFrames(FRAMES);
+        long after = mBean.getThreadAllocatedBytes(threadId);
+
+        // A single object allocated per frame would account for well over this.
+        assertTrue("frames allocated " + (after - before) + " bytes", after - before < 1024);
+    }
+
+    private void runFrames(int frames) {
+        long now = 1463918400000L;
+        for (int i = 0; i < frames; i++) {
+            mStats.beginFrame();
+            mTime.second = i % 60;
+            mDialText.update(mTime, "Faker", mBounds, mPaint);
+            mTicks.setSize(360, 360);
+            mHands.setSize(360, 360);
+            mHands.update(mTime.hour, mTime.minute, mTime.second + (i % 15) / 15f);
+            mStats.endFrame();
+
+            long delay = mTickScheduler.getDelayMs(now) + mSweepScheduler.getDelayMs(now);
+            mStats.recordTick(now, now + 2, delay);
+            now += delay;
+        }
+    }
+}